@@ -0,0 +1,45 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link Model#calcNeighbours()} for square boards of different size. Low density uses scattering around bombs and high density counts whole board (see {@link Board#calcNeighbours()}).
+ * Neighbour counts must be zero before counting, so the same bombs are placed again on cleared board before every call.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalcNeighboursBenchmark {
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+	@Param({"0.02", "0.2"})
+	double density;
+
+	private Model model;
+
+	@Setup
+	public void setUp() {
+		this.model=new Model(this.size, this.size, (int)(this.size*this.size*this.density));
+	}
+
+	@Setup(Level.Invocation)
+	public void placeBombs() {
+		this.model.resetBoard();
+		this.model.setRandom(new Random(42));
+		this.model.placeBombs(0, 0);
+	}
+
+	@Benchmark
+	public Board calcNeighbours() {
+		this.model.calcNeighbours();
+		return this.model.getBoard();
+	}
+}
@@ -0,0 +1,47 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures how long it takes to find which field was clicked, which is what {@link Controller.MouseGridListener} does on every press and release (see {@link BoardPanel#fieldX(int)}).
+ * Clicks are spread randomly over square boards of different size.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ClickLookupBenchmark {
+	private static final int CLICKS=1024;
+
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+
+	private BoardPanel panel;
+	private int[] clickX=new int[CLICKS], clickY=new int[CLICKS];
+	private int click;
+
+	@Setup
+	public void setUp() {
+		this.panel=new BoardPanel(new Model(this.size, this.size, 0));
+		Random random=new Random(42);
+		for(int i=0; i<CLICKS; ++i) {
+			this.clickX[i]=random.nextInt(this.size*BoardPanel.FIELD_SIZE);
+			this.clickY[i]=random.nextInt(this.size*BoardPanel.FIELD_SIZE);
+		}
+	}
+
+	@Benchmark
+	public int findClickedField() {
+		int i=this.click++&(CLICKS-1);
+		int x=this.panel.fieldX(this.clickY[i]);
+		int y=this.panel.fieldY(this.clickX[i]);
+		return x*this.size+y;
+	}
+}
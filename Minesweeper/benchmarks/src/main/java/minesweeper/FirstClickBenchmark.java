@@ -0,0 +1,53 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures first click of new game on square boards with 15% of bombs, with bombs placed on the click and with board taken from {@link BoardPregenerator}.
+ * First click policy keeps only clicked field safe, opens 3x3 square or opens at least 200 fields (see {@link FirstClickPolicy}).
+ * Before every call the game is reset and, with pregenerator, setup waits until the next board is ready, like when player starts new game some time after the last one.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class FirstClickBenchmark {
+	@Param({"30", "300", "2000"})
+	int size;
+	@Param({"false", "true"})
+	boolean pregenerated;
+	@Param({"safe", "opening", "200"})
+	String policy;
+
+	private GameEngine engine;
+	private BoardPregenerator pregenerator;
+
+	@Setup
+	public void setUp() {
+		this.engine=new GameEngine(this.size, this.size, this.size*this.size*15/100, new Random(42));
+		this.engine.setFirstClickPolicy(FirstClickPolicy.parse(this.policy));
+		if(this.pregenerated) {
+			this.pregenerator=new BoardPregenerator();
+			this.engine.setPregenerator(this.pregenerator);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void newGame() throws InterruptedException {
+		this.engine.reset();
+		while(this.pregenerator!=null && !this.pregenerator.isReady())
+			Thread.sleep(1);
+	}
+
+	@Benchmark
+	public int firstClick() {
+		return this.engine.revealTile(this.size/2, this.size/2);
+	}
+}
@@ -0,0 +1,51 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures revealing fields along a long diagonal of new {@link InfiniteBoard}, which generates chunks on the way.
+ * With few chunks in memory most of them are evicted and changed ones are written to spill directory, so the difference shows cost of spilling.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class InfiniteBoardBenchmark {
+	@Param({"4", "4096"})
+	int maxChunks;
+
+	private Path spillDirectory;
+	private InfiniteBoard board;
+	private long seed;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.spillDirectory=Files.createTempDirectory("minesweeper-chunks");
+	}
+
+	@Setup(Level.Invocation)
+	public void newBoard() {
+		this.board=new InfiniteBoard(this.seed++, 0.2, this.maxChunks, this.spillDirectory);
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteBoard() throws IOException {
+		this.board.close();
+	}
+
+	@Benchmark
+	public long revealDiagonal() {
+		for(int i=0; i<64 && this.board.getState()==GameEngine.RUNNING; ++i)
+			this.board.reveal(i*Chunk.SIZE/2, i*Chunk.SIZE/2);
+		return this.board.getRevealedCounter();
+	}
+}
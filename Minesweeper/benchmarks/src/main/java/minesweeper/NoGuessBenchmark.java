@@ -0,0 +1,42 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures latency of first click in no-guess mode, which includes search for no-guess board (see {@link NoGuessGenerator}).
+ * Time of every call is sampled, so percentiles (p99 most of all) can be compared with click latency budget.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class NoGuessBenchmark {
+	@Param({"Intermediate", "Expert"})
+	String mode;
+
+	private GameEngine engine;
+
+	@Setup
+	public void setUp() {
+		Difficulty difficulty=Difficulty.fromLabel(this.mode);
+		this.engine=new GameEngine(difficulty.getWidth(), difficulty.getHeight(), difficulty.getBombs(), new Random(42));
+		this.engine.setNoGuess(new NoGuessGenerator(1000));
+	}
+
+	@Setup(Level.Invocation)
+	public void newGame() {
+		this.engine.reset();
+	}
+
+	@Benchmark
+	public int firstClick() {
+		return this.engine.revealTile(this.engine.getWidth()/2, this.engine.getHeight()/2);
+	}
+}
@@ -0,0 +1,40 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link Model#placeBombs(int, int)} for square boards of different size and density of bombs.
+ * Board has to be empty before bombs are placed, so every measured call also clears it (see {@link ResetBenchmark} for cost of that alone).
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaceBombsBenchmark {
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+	@Param({"0.1", "0.5", "0.99"})
+	double density;
+
+	private Model model;
+
+	@Setup
+	public void setUp() {
+		this.model=new Model(this.size, this.size, (int)(this.size*this.size*this.density));
+		this.model.setRandom(new Random(42));
+	}
+
+	@Benchmark
+	public Board placeBombs() {
+		this.model.resetBoard();
+		this.model.placeBombs(this.size/2, this.size/2);
+		return this.model.getBoard();
+	}
+}
@@ -0,0 +1,46 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link MineProbabilities#calculate()} on expert board played by {@link Solver} until it has to guess, which is when probabilities overlay is needed.
+ * Cold calculation enumerates every component, warm one finds all of them in cache like after a move far from the frontier.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProbabilitiesBenchmark {
+	@Param({"false", "true"})
+	boolean cached;
+
+	private GameEngine engine;
+	private MineProbabilities probabilities;
+
+	@Setup
+	public void setUp() {
+		Difficulty expert=Difficulty.EXPERT;
+		this.engine=new GameEngine(expert.getWidth(), expert.getHeight(), expert.getBombs(), new Random(42));
+		Solver solver=new Solver(this.engine);
+		int width=this.engine.getWidth();
+		for(int field=this.engine.getHeight()/2*width+width/2; field>=0; field=solver.nextSafe()) {
+			this.engine.revealTile(field%width, field/width);
+			solver.revealed(field%width, field/width);
+		}
+		this.probabilities=new MineProbabilities(this.engine);
+	}
+
+	@Benchmark
+	public double[] calculate() {
+		if(!this.cached)
+			this.probabilities=new MineProbabilities(this.engine);
+		return this.probabilities.calculate();
+	}
+}
@@ -0,0 +1,63 @@
+package minesweeper;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures redrawing of the gameboard in headless mode, which is what {@link View#redrawBoard()} does: handling fields changed by a move (see {@link BoardPanel#redrawChanged()}) and painting them.
+ * Panel paints into an image of the size of visible part of the board.
+ * flagRedraw repaints single field flagged or unflagged by the move, fullRedraw paints whole visible board.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RedrawBenchmark {
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+
+	private Model model;
+	private BoardPanel panel;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		this.model=new Model(this.size, this.size, this.size*this.size/5);
+		this.model.revealTile(this.size/2, this.size/2);
+		this.panel=new BoardPanel(this.model);
+		Dimension size=this.panel.getPreferredSize();
+		this.panel.setSize(size);
+		this.image=new BufferedImage(Math.min(size.width, View.MAX_BOARD_SIZE.width), Math.min(size.height, View.MAX_BOARD_SIZE.height), BufferedImage.TYPE_INT_RGB);
+		this.graphics=this.image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage flagRedraw() {
+		this.model.changeState(0, 0);
+		this.panel.redrawChanged();
+		this.graphics.setClip(0, 0, BoardPanel.FIELD_SIZE, BoardPanel.FIELD_SIZE);
+		this.panel.paint(this.graphics);
+		return this.image;
+	}
+
+	@Benchmark
+	public BufferedImage fullRedraw() {
+		this.graphics.setClip(0, 0, this.image.getWidth(), this.image.getHeight());
+		this.panel.paint(this.graphics);
+		return this.image;
+	}
+}
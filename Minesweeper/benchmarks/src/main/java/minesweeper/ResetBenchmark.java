@@ -0,0 +1,57 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link Model#reset()} (whole game, with notification of listeners) and {@link Model#resetBoard()} (fields only) for square boards of different size.
+ * It also measures {@link GameEngine#changeMode(int, int, int)} switching between square board and expert board, which takes boards from engine's pool (run with -prof gc to see that it doesn't allocate).
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResetBenchmark {
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+
+	private Model model;
+	private GameEngine engine;
+	private boolean expert;
+
+	@Setup
+	public void setUp() {
+		this.model=new Model(this.size, this.size, this.size*this.size/5);
+		this.model.addListener(events -> {});
+		this.model.revealTile(this.size/2, this.size/2);
+		this.engine=new GameEngine(this.size, this.size, this.size*this.size/5, new Random(42));
+	}
+
+	@Benchmark
+	public Model reset() {
+		this.model.reset();
+		return this.model;
+	}
+
+	@Benchmark
+	public Board resetBoard() {
+		this.model.resetBoard();
+		return this.model.getBoard();
+	}
+
+	@Benchmark
+	public Board changeMode() {
+		this.expert=!this.expert;
+		if(this.expert)
+			this.engine.changeMode(Difficulty.EXPERT.getWidth(), Difficulty.EXPERT.getHeight(), Difficulty.EXPERT.getBombs());
+		else
+			this.engine.changeMode(this.size, this.size, this.size*this.size/5);
+		return this.engine.getBoard();
+	}
+}
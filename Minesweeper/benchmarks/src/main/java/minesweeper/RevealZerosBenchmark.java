@@ -0,0 +1,45 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link Model#revealZeros(int, int)} started in the middle of square boards with no or few bombs, where one click opens most of the board.
+ * Board is hidden again before every call.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class RevealZerosBenchmark {
+	@Param({"8", "30", "100", "1000", "4000"})
+	int size;
+	@Param({"0", "0.02"})
+	double density;
+
+	private Model model;
+
+	@Setup
+	public void setUp() {
+		this.model=new Model(this.size, this.size, (int)(this.size*this.size*this.density));
+	}
+
+	@Setup(Level.Invocation)
+	public void hideBoard() {
+		this.model.resetBoard();
+		this.model.setRandom(new Random(42));
+		this.model.placeBombs(this.size/2, this.size/2);
+		this.model.calcNeighbours();
+	}
+
+	@Benchmark
+	public int revealZeros() {
+		return this.model.revealZeros(this.size/2, this.size/2);
+	}
+}
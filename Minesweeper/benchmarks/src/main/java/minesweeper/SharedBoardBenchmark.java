@@ -0,0 +1,87 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures how long given number of threads needs to clear one shared 1000x1000 {@link SharedBoard} together.
+ * Fields without bombs are shuffled and split evenly between threads, and every thread clicks all fields of it's part, so areas of empty fields are often spread by several threads at once.
+ * Comparing results by number of threads shows how cooperative play scales with cores.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class SharedBoardBenchmark {
+	private static final int SIZE=1000;
+
+	@Param({"1", "2", "4", "8"})
+	int threads;
+	@Param({"0.05", "0.2"})
+	double density;
+
+	private Board board;
+	private int[] safe;
+	private ExecutorService players;
+	private SharedBoard shared;
+
+	@Setup
+	public void setUp() {
+		this.board=new Board(SIZE, SIZE);
+		Random random=new Random(42);
+		this.board.placeBombs((int)(SIZE*SIZE*this.density), new int[0], random);
+		this.board.calcNeighbours();
+		this.safe=new int[this.board.size()-this.board.getBombCount()];
+		for(int i=0, k=0; i<this.board.size(); ++i)
+			if(!this.board.getBomb(i%SIZE, i/SIZE))
+				this.safe[k++]=i;
+		for(int k=this.safe.length-1; k>0; --k) {
+			int j=random.nextInt(k+1);
+			int field=this.safe[k];
+			this.safe[k]=this.safe[j];
+			this.safe[j]=field;
+		}
+		this.players=Executors.newFixedThreadPool(this.threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.players.shutdown();
+	}
+
+	@Setup(Level.Invocation)
+	public void newBoard() {
+		this.shared=new SharedBoard(this.board);
+	}
+
+	@Benchmark
+	public long clearBoard() throws InterruptedException, ExecutionException {
+		List<Callable<Integer>> parts=new ArrayList<Callable<Integer>>();
+		for(int t=0; t<this.threads; ++t) {
+			int from=(int)((long)this.safe.length*t/this.threads);
+			int to=(int)((long)this.safe.length*(t+1)/this.threads);
+			parts.add(() -> {
+				int revealed=0;
+				for(int k=from; k<to; ++k)
+					revealed+=this.shared.reveal(this.safe[k]%SIZE, this.safe[k]/SIZE);
+				return revealed;
+			});
+		}
+		for(Future<Integer> part : this.players.invokeAll(parts))
+			part.get();
+		return this.shared.getRevealedCounter();
+	}
+}
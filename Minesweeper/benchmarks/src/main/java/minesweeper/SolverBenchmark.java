@@ -0,0 +1,46 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures whole games played by {@link Simulator#play(Solver, SplittableRandom)} on expert board and on big board with expert density of bombs.
+ * New game is generated before every call, so only moves of the player and work of {@link Solver} are measured.
+ * @author Tomek
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+	@Param({"16x30x99", "1000x1000x206250"})
+	String mode;
+
+	private GameEngine engine;
+	private Solver solver;
+	private SplittableRandom random=new SplittableRandom(42);
+
+	@Setup
+	public void setUp() {
+		String[] size=this.mode.split("x");
+		this.engine=new GameEngine(Integer.parseInt(size[0]), Integer.parseInt(size[1]), Integer.parseInt(size[2]), new Random(42));
+		this.solver=new Solver(this.engine);
+	}
+
+	@Setup(Level.Invocation)
+	public void newGame() {
+		this.engine.reset();
+		this.solver.reset();
+	}
+
+	@Benchmark
+	public int play() {
+		return Simulator.play(this.solver, this.random);
+	}
+}
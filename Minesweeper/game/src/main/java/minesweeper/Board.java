@@ -0,0 +1,593 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This is class which stores state of whole gameboard in one flat byte array.
+ * Every field takes one byte: lowest four bits hold number of neighbouring bombs and the next three bits mark bomb, revealed and flagged field.
+ * Fields are stored row after row, so field (x, y) is kept under index y*width+x.
+ * Board also remembers indices of its bombs, so work that depends only on bombs doesn't have to scan every field. Moves of bombs are applied to this list only when it's next read (see {@link #moveBomb(int, int)}).
+ * Every field which changes it's look (is revealed, flagged or unflagged) is recorded, so view can redraw only those fields (see {@link #getChangedCount()}).
+ * <p>
+ * Reset takes constant time. Fields are split into blocks of 64 and every block is stamped with generation of the board in which it was last cleared. Reset only starts new generation, fields of blocks with older stamp read as blank
+ * and block is cleared when one of its fields is first changed. So new game costs only as much as the part of the board it really uses.
+ * @author Tomek
+ *
+ */
+public class Board {
+	static final int NEIGHBOURS_MASK=0x0F;
+	static final int BOMB=0x10;
+	static final int REVEALED=0x20;
+	static final int FLAGGED=0x40;
+	/** Boards with fewer fields per bomb than this count neighbours by scanning whole board. */
+	static final int SPARSE_RATIO=12;
+	/** Boards with more fields than this count neighbours on all cores. */
+	static final int PARALLEL_THRESHOLD=1<<16;
+	/** Number of rows counted by one task. */
+	static final int ROWS_PER_TASK=64;
+	/** Most changed fields recorded before whole board is treated as changed. */
+	static final int MAX_CHANGED=1<<20;
+	/** Blocks which are cleared lazily have 1<<BLOCK_SHIFT fields. */
+	static final int BLOCK_SHIFT=6;
+	static final int BLOCK_MASK=(1<<BLOCK_SHIFT)-1;
+
+	private final int width, height;
+	private final byte[] cells;
+	/** Generation in which every block was last cleared. */
+	private final int[] stamps;
+	private int generation;
+	private int[] bombs=new int[16];
+	private int bombCount;
+	private boolean bombsCollected=true;
+	/** Moves of bombs not yet applied to list of bombs, as index of field the bomb left in high and index of it's new field in low half. */
+	private long[] moved=new long[8];
+	private int movedCount;
+	private int[] changed=new int[64];
+	private int changedCount;
+	private boolean allChanged=true;
+	private int[] stack=new int[64];
+	private int stackSize;
+
+	public Board(int width, int height) {
+		this.width=width;
+		this.height=height;
+		this.cells=new byte[width*height];
+		this.stamps=new int[(this.cells.length+(1<<BLOCK_SHIFT)-1)>>>BLOCK_SHIFT];
+	}
+
+	/**
+	 * This function clears every field of the board (removes bombs, flags, neighbours and hides it).
+	 * It only starts new generation, fields are cleared block by block when they are used again.
+	 */
+	public void reset() {
+		if(++this.generation==0) { //stamps wrapped around, so they can't be trusted
+			Arrays.fill(this.cells, (byte)0);
+			Arrays.fill(this.stamps, 0);
+		}
+		this.bombCount=0;
+		this.bombsCollected=true;
+		this.movedCount=0;
+		this.allChanged=true;
+		this.changedCount=0;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * @return number of fields on the board
+	 */
+	public int size() {
+		return this.cells.length;
+	}
+
+	/**
+	 * Converts position of field to index in board array.
+	 * @param x - x position of field
+	 * @param y - y position of field
+	 * @return index of field
+	 */
+	public int index(int x, int y) {
+		return y*this.width+x;
+	}
+
+	/**
+	 * @return packed field at given index, blank if it's block was not cleared since last reset
+	 */
+	private int cell(int i) {
+		return this.stamps[i>>>BLOCK_SHIFT]==this.generation ? this.cells[i] : 0;
+	}
+
+	/**
+	 * Clears block of field at given index if it was not cleared since last reset. It must be called before field is changed.
+	 */
+	private void touch(int i) {
+		int block=i>>>BLOCK_SHIFT;
+		if(this.stamps[block]==this.generation)
+			return;
+		Arrays.fill(this.cells, block<<BLOCK_SHIFT, Math.min((block+1)<<BLOCK_SHIFT, this.cells.length), (byte)0);
+		this.stamps[block]=this.generation;
+	}
+
+	/**
+	 * Clears all blocks which were not cleared since last reset. It's called before work which reads or changes whole board anyway.
+	 */
+	private void touchAll() {
+		for(int block=0; block<this.stamps.length; ++block)
+			this.touch(block<<BLOCK_SHIFT);
+	}
+
+	public boolean getBomb(int x, int y) {
+		return (this.cell(this.index(x, y))&BOMB)!=0;
+	}
+
+	public void setBomb(int x, int y) {
+		this.addBomb(this.index(x, y));
+	}
+
+	/**
+	 * @return number of bombs on the board
+	 */
+	public int getBombCount() {
+		if(!this.bombsCollected) //moves don't change number of bombs
+			this.collectBombs();
+		return this.bombCount;
+	}
+
+	/**
+	 * Writes packed fields to buffer, starting at it's position.
+	 * @param buffer - buffer with at least {@link #size()} bytes remaining
+	 */
+	public void write(ByteBuffer buffer) {
+		this.touchAll();
+		buffer.put(this.cells);
+	}
+
+	/**
+	 * Replaces all fields with packed fields read from buffer, starting at it's position. It's one bulk copy, list of bombs is collected from fields only when it's first needed.
+	 * @param buffer - buffer with at least {@link #size()} bytes remaining, written by {@link #write(ByteBuffer)}
+	 */
+	public void read(ByteBuffer buffer) {
+		buffer.get(this.cells);
+		Arrays.fill(this.stamps, this.generation);
+		this.bombCount=0;
+		this.bombsCollected=false;
+		this.movedCount=0;
+		this.allChanged=true;
+		this.changedCount=0;
+	}
+
+	/**
+	 * Fills list of bombs from fields if they were read by {@link #read(ByteBuffer)} since it was last filled, otherwise applies moves of bombs made since it was last read.
+	 */
+	private void collectBombs() {
+		if(this.bombsCollected) {
+			this.applyMoves();
+			return;
+		}
+		this.bombsCollected=true;
+		for(int i=0; i<this.cells.length; ++i)
+			if((this.cell(i)&BOMB)!=0) {
+				if(this.bombCount==this.bombs.length)
+					this.bombs=Arrays.copyOf(this.bombs, this.bombCount*2);
+				this.bombs[this.bombCount++]=i;
+			}
+	}
+
+	/**
+	 * Replaces fields which bombs left with their new fields in list of bombs, in one pass over the list.
+	 */
+	private void applyMoves() {
+		int count=this.movedCount;
+		if(count==0)
+			return;
+		this.movedCount=0;
+		long[] moves=this.moved;
+		Arrays.sort(moves, 0, count);
+		int first=(int)(moves[0]>>>32), last=(int)(moves[count-1]>>>32);
+		for(int k=0; k<this.bombCount; ++k) {
+			int bomb=this.bombs[k];
+			if(bomb<first || bomb>last)
+				continue;
+			int m=Arrays.binarySearch(moves, 0, count, (long)bomb<<32);
+			m=m<0 ? -m-1 : m;
+			if(m<count && (int)(moves[m]>>>32)==bomb)
+				this.bombs[k]=(int)moves[m];
+		}
+	}
+
+	/**
+	 * @param k - number of bomb, from 0 to {@link #getBombCount()}-1
+	 * @return index of field with k-th placed bomb
+	 */
+	public int getBombField(int k) {
+		this.collectBombs();
+		return this.bombs[k];
+	}
+
+	private void addBomb(int i) {
+		this.collectBombs();
+		this.touch(i);
+		if((this.cells[i]&BOMB)!=0)
+			return;
+		this.cells[i]|=BOMB;
+		if(this.bombCount==this.bombs.length)
+			this.bombs=Arrays.copyOf(this.bombs, this.bombCount*2);
+		this.bombs[this.bombCount++]=i;
+	}
+
+	/**
+	 * This function moves bomb to field without bomb and updates neighbour counts of fields around both of them, so it takes the same time on board of any size.
+	 * Move is remembered and all moves are applied to list of bombs in one pass over it when the list is next read (see {@link #getBombField(int)}), number of bombs stays known all the time.
+	 * @param from - index of field with bomb
+	 * @param to - index of field without bomb
+	 */
+	public void moveBomb(int from, int to) {
+		this.touch(from);
+		this.cells[from]&=~BOMB;
+		this.cells[from]=(byte)((this.cells[from]&~NEIGHBOURS_MASK)|this.shiftNeighbours(from, -1));
+		this.touch(to);
+		this.cells[to]=(byte)((this.cells[to]&~NEIGHBOURS_MASK)|BOMB); //fields with bomb keep zero
+		this.shiftNeighbours(to, 1);
+		if(this.bombsCollected) //otherwise list is collected from fields
+			this.recordMove(from, to);
+	}
+
+	/**
+	 * Remembers move of bomb for the list of bombs. Bomb which is moved again keeps one move from it's field in the list to it's last field.
+	 */
+	private void recordMove(int from, int to) {
+		for(int m=0; m<this.movedCount; ++m)
+			if((int)this.moved[m]==from) {
+				if((int)(this.moved[m]>>>32)==to) //back where it is in the list
+					this.moved[m]=this.moved[--this.movedCount];
+				else
+					this.moved[m]=this.moved[m]&0xFFFFFFFF00000000L|to;
+				return;
+			}
+		if(this.movedCount==this.moved.length)
+			this.moved=Arrays.copyOf(this.moved, this.movedCount*2);
+		this.moved[this.movedCount++]=(long)from<<32|to;
+	}
+
+	/**
+	 * Adds change to neighbour count of every field without bomb around given field.
+	 * @return number of bombs around given field
+	 */
+	private int shiftNeighbours(int i, int change) {
+		int x=i%this.width, y=i/this.width;
+		int fromX=Math.max(x-1, 0), toX=Math.min(x+1, this.width-1);
+		int fromY=Math.max(y-1, 0), toY=Math.min(y+1, this.height-1);
+		int bombs=0;
+		for(int j=fromY; j<=toY; ++j)
+			for(int n=j*this.width+fromX, end=j*this.width+toX; n<=end; ++n) {
+				if(n==i)
+					continue;
+				this.touch(n);
+				if((this.cells[n]&BOMB)!=0)
+					bombs++;
+				else
+					this.cells[n]+=change;
+			}
+		return bombs;
+	}
+
+	public boolean getRevealed(int x, int y) {
+		return (this.cell(this.index(x, y))&REVEALED)!=0;
+	}
+
+	public void reveal(int x, int y) {
+		int i=this.index(x, y);
+		this.touch(i);
+		this.cells[i]|=REVEALED;
+		this.markChanged(i);
+	}
+
+	public boolean getFlag(int x, int y) {
+		return (this.cell(this.index(x, y))&FLAGGED)!=0;
+	}
+
+	public void setFlag(int x, int y) {
+		int i=this.index(x, y);
+		this.touch(i);
+		this.cells[i]|=FLAGGED;
+		this.markChanged(i);
+	}
+
+	public void removeFlag(int x, int y) {
+		int i=this.index(x, y);
+		this.touch(i);
+		this.cells[i]&=~FLAGGED;
+		this.markChanged(i);
+	}
+
+	public int getNeighbours(int x, int y) {
+		return this.cell(this.index(x, y))&NEIGHBOURS_MASK;
+	}
+
+	public void setNeighbours(int x, int y, int neighbours) {
+		int i=this.index(x, y);
+		this.touch(i);
+		this.cells[i]=(byte)((this.cells[i]&~NEIGHBOURS_MASK)|neighbours);
+	}
+
+	/**
+	 * @return true if so many fields changed since last {@link #clearChanges()} that they were not recorded one by one and whole board should be redrawn
+	 */
+	public boolean isAllChanged() {
+		return this.allChanged;
+	}
+
+	/**
+	 * @return number of fields recorded as changed since last {@link #clearChanges()}
+	 */
+	public int getChangedCount() {
+		return this.changedCount;
+	}
+
+	/**
+	 * @param k - number of recorded change, from 0 to {@link #getChangedCount()}-1
+	 * @return index of changed field
+	 */
+	public int getChanged(int k) {
+		return this.changed[k];
+	}
+
+	/**
+	 * Forgets all recorded changes. It should be called by whoever has handled them.
+	 */
+	public void clearChanges() {
+		this.changedCount=0;
+		this.allChanged=false;
+	}
+
+	/**
+	 * Records that field has changed. When too many fields were changed it stops recording them and marks whole board as changed instead, so memory used for it stays bounded.
+	 */
+	private void markChanged(int i) {
+		if(this.allChanged)
+			return;
+		if(this.changedCount==MAX_CHANGED || this.changedCount>this.cells.length/8) {
+			this.allChanged=true;
+			this.changedCount=0;
+			return;
+		}
+		if(this.changedCount==this.changed.length)
+			this.changed=Arrays.copyOf(this.changed, this.changedCount*2);
+		this.changed[this.changedCount++]=i;
+	}
+
+	/**
+	 * This function places given number of bombs on empty board, never putting one on forbidden field (see {@link #placeBombs(int, int[], Random)}).
+	 * @param bombs - number of bombs, at most one less than number of fields
+	 * @param forbidden - index of field which can't have bomb
+	 * @param random - source of random numbers, seeded one gives reproducible boards
+	 */
+	public void placeBombs(int bombs, int forbidden, Random random) {
+		this.placeBombs(bombs, new int[] {forbidden}, random);
+	}
+
+	/**
+	 * This function places given number of bombs on empty board, never putting one on forbidden fields.
+	 * It uses Floyd's sampling over indices of all other fields, so it draws exactly one random number per bomb no matter how dense the board is, and every allowed field is equally likely.
+	 * Already placed bombs serve as set of chosen indices, so no extra memory is needed.
+	 * @param bombs - number of bombs, at most number of fields which are not forbidden
+	 * @param forbidden - indices of fields which can't have bomb, sorted from the smallest
+	 * @param random - source of random numbers, seeded one gives reproducible boards
+	 */
+	public void placeBombs(int bombs, int[] forbidden, Random random) {
+		int allowed=this.cells.length-forbidden.length;
+		for(int j=allowed-bombs; j<allowed; ++j) {
+			int i=skip(random.nextInt(j+1), forbidden);
+			if((this.cell(i)&BOMB)!=0)
+				i=skip(j, forbidden);
+			this.addBomb(i);
+		}
+	}
+
+	/**
+	 * Maps index among allowed fields to index on the board by skipping forbidden fields.
+	 */
+	private static int skip(int i, int[] forbidden) {
+		for(int k=0; k<forbidden.length && i>=forbidden[k]; ++k)
+			i++;
+		return i;
+	}
+
+	/**
+	 * Calculates how many bombs are on fields adjacent to every field without bomb. Neighbour counts must be zero before the call, which is true for new or reset board.
+	 * Boards with few bombs are handled by {@link #scatterNeighbours()} and dense ones by {@link #countNeighbours()}, both give the same result.
+	 */
+	public void calcNeighbours() {
+		this.collectBombs();
+		if((long)this.bombCount*SPARSE_RATIO<this.cells.length)
+			this.scatterNeighbours();
+		else
+			this.countNeighbours();
+	}
+
+	/**
+	 * Adds one to neighbour count of every field without bomb around each bomb. It costs O(bombs) and never touches fields far from bombs.
+	 */
+	void scatterNeighbours() {
+		for(int b=0; b<this.bombCount; ++b) {
+			int x=this.bombs[b]%this.width;
+			int y=this.bombs[b]/this.width;
+			int fromX=Math.max(x-1, 0), toX=Math.min(x+1, this.width-1);
+			int fromY=Math.max(y-1, 0), toY=Math.min(y+1, this.height-1);
+			for(int j=fromY; j<=toY; ++j)
+				for(int i=j*this.width+fromX, end=j*this.width+toX; i<=end; ++i) {
+					this.touch(i);
+					if((this.cells[i]&BOMB)==0)
+						this.cells[i]++;
+				}
+		}
+	}
+
+	/**
+	 * Counts neighbours of every field by summing its eight neighbours in copy of bombs surrounded by one field wide empty frame, so no bounds checks are needed.
+	 * Big boards are split into bands of rows which are counted in parallel on common fork-join pool.
+	 */
+	void countNeighbours() {
+		this.touchAll();
+		int paddedWidth=this.width+2;
+		byte[] padded=new byte[paddedWidth*(this.height+2)];
+		for(int y=0, i=0; y<this.height; ++y)
+			for(int c=(y+1)*paddedWidth+1, end=c+this.width; c<end; ++c, ++i)
+				padded[c]=(byte)((this.cells[i]&BOMB)>>>4);
+		CountRows task=new CountRows(padded, 0, this.height);
+		if(this.cells.length>PARALLEL_THRESHOLD)
+			ForkJoinPool.commonPool().invoke(task);
+		else
+			task.compute();
+	}
+
+	/**
+	 * Task which counts neighbours for band of rows, splitting it in halves while it is bigger than {@link Board#ROWS_PER_TASK}.
+	 */
+	private class CountRows extends RecursiveAction {
+		private static final long serialVersionUID = 1;
+		private final byte[] padded;
+		private final int fromRow, toRow;
+
+		CountRows(byte[] padded, int fromRow, int toRow) {
+			this.padded=padded;
+			this.fromRow=fromRow;
+			this.toRow=toRow;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.toRow-this.fromRow>ROWS_PER_TASK) {
+				int middle=(this.fromRow+this.toRow)>>>1;
+				invokeAll(new CountRows(this.padded, this.fromRow, middle), new CountRows(this.padded, middle, this.toRow));
+				return;
+			}
+			byte[] p=this.padded;
+			byte[] cells=Board.this.cells;
+			int width=Board.this.width;
+			int paddedWidth=width+2;
+			for(int y=this.fromRow; y<this.toRow; ++y) {
+				int c=(y+1)*paddedWidth+1; //field (0, y) in padded grid
+				int above=c-paddedWidth, below=c+paddedWidth;
+				for(int i=y*width, end=i+width; i<end; ++i, ++c, ++above, ++below) {
+					int neighbours=p[above-1]+p[above]+p[above+1]+p[c-1]+p[c+1]+p[below-1]+p[below]+p[below+1];
+					neighbours&=p[c]-1; //fields with bomb keep zero, without branching
+					cells[i]=(byte)((cells[i]&~NEIGHBOURS_MASK)|neighbours);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function reveals clicked field and, if it has no neighbouring bombs, whole area of such fields together with the numbered fields bordering it.
+	 * It uses scanline fill: every taken seed is stretched to the longest horizontal run of empty fields, the run and its ends are revealed and rows above and below are scanned for new seeds.
+	 * Seeds are kept on explicit stack of field indices, which is reused between calls, and revealed flag tells which fields were already visited, so no recursion or extra per-field memory is needed.
+	 * @param x - x position of clicked field
+	 * @param y - y position of clicked field
+	 * @return number of fields which were revealed by this call
+	 */
+	public int revealArea(int x, int y) {
+		int i=this.index(x, y);
+		if((this.cell(i)&REVEALED)!=0)
+			return 0;
+		if(!isEmpty((byte)this.cell(i))) {
+			this.touch(i);
+			this.cells[i]|=REVEALED;
+			this.markChanged(i);
+			return 1;
+		}
+
+		int revealed=0;
+		this.stackSize=0;
+		this.push(i);
+		while(this.stackSize>0) {
+			int seed=this.stack[--this.stackSize];
+			if((this.cell(seed)&REVEALED)!=0)
+				continue;
+			int row=seed/this.width;
+			int rowStart=row*this.width;
+			int rowEnd=rowStart+this.width-1;
+			int left=seed, right=seed;
+			this.touch(seed);
+			//blocks are cleared when the run enters them, so fields can be read straight from the array
+			while(left>rowStart) {
+				if((left&BLOCK_MASK)==0)
+					this.touch(left-1);
+				if(!isEmpty(this.cells[left-1]))
+					break;
+				left--;
+			}
+			while(right<rowEnd) {
+				if(((right+1)&BLOCK_MASK)==0)
+					this.touch(right+1);
+				if(!isEmpty(this.cells[right+1]))
+					break;
+				right++;
+			}
+			//run of empty fields is bordered by numbered or already revealed fields
+			if(left>rowStart)
+				left--;
+			if(right<rowEnd)
+				right++;
+			revealed+=this.scanRow(left, right, false);
+			if(row!=0) //not first row
+				revealed+=this.scanRow(left-this.width, right-this.width, true);
+			if(row!=this.height-1) //not last row
+				revealed+=this.scanRow(left+this.width, right+this.width, true);
+		}
+		return revealed;
+	}
+
+	/**
+	 * Reveals every hidden field between two indices in one row. Empty fields are revealed only if seeds are not collected, otherwise first field of every run of empty fields is pushed as new seed.
+	 * @param from - index of first field
+	 * @param to - index of last field
+	 * @param collectSeeds - whether empty fields should become seeds instead of being revealed
+	 * @return number of revealed fields
+	 */
+	private int scanRow(int from, int to, boolean collectSeeds) {
+		for(int block=from>>>BLOCK_SHIFT; block<=to>>>BLOCK_SHIFT; ++block)
+			this.touch(block<<BLOCK_SHIFT);
+		int revealed=0;
+		boolean inRun=false;
+		for(int i=from; i<=to; ++i) {
+			byte cell=this.cells[i];
+			if(collectSeeds && isEmpty(cell)) {
+				if(!inRun)
+					this.push(i);
+				inRun=true;
+				continue;
+			}
+			inRun=false;
+			if((cell&REVEALED)==0) {
+				this.cells[i]|=REVEALED;
+				this.markChanged(i);
+				revealed++;
+			}
+		}
+		return revealed;
+	}
+
+	private void push(int i) {
+		if(this.stackSize==this.stack.length)
+			this.stack=Arrays.copyOf(this.stack, this.stackSize*2);
+		this.stack[this.stackSize++]=i;
+	}
+
+	/**
+	 * @return true if field is hidden, has no bomb and no neighbouring bombs
+	 */
+	private static boolean isEmpty(byte cell) {
+		return (cell&(REVEALED|BOMB|NEIGHBOURS_MASK))==0;
+	}
+}
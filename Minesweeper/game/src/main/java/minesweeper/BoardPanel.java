@@ -0,0 +1,293 @@
+package minesweeper;
+
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * This is single component which draws whole gameboard straight from model's board.
+ * Every look of a field (hidden, flagged, empty, bomb and numbers from 1 to 8) is drawn once to an image, so painting field is just copying that image.
+ * Only fields inside painted area are drawn, so painting cost doesn't depend on size of the board.
+ * Fields are laid out like in a grid of rows: field's x position is it's row and y position is it's column.
+ * <p>
+ * In infinite mode panel has fixed size and shows part of {@link InfiniteBoard} seen through view, which is moved by mouse wheel (with shift held horizontally) or by dragging with middle button.
+ * Only fields inside painted area are read, so only chunks visible in the view are generated or loaded by the board.
+ * @author Tomek
+ *
+ */
+public class BoardPanel extends JComponent {
+	private static final long serialVersionUID = 1;
+	static final int FIELD_SIZE=45;
+	private static final int HIDDEN=0, FLAGGED=9, BOMB=10, EMPTY=11;
+
+	private Model model;
+	private Image[] glyphs=new Image[12];
+	private double[] probabilities;
+	/** Position of view's top left corner on infinite board in pixels, field (x, y) is drawn at (y*FIELD_SIZE-viewX, x*FIELD_SIZE-viewY). */
+	private long viewX, viewY;
+	private final ViewScroller scroller=new ViewScroller();
+
+	BoardPanel(Model model) {
+		this.model=model;
+		this.setOpaque(true);
+		for(int i=0; i<this.glyphs.length; ++i)
+			this.glyphs[i]=createGlyph(i);
+		this.addMouseMotionListener(this.scroller);
+		this.boardChanged();
+	}
+
+	/**
+	 * This function should be called when model's board was replaced by board of different size. It updates preferred size of the panel and repaints it.
+	 * Infinite board is shown in panel of {@link View#MAX_BOARD_SIZE} with view centered on field (0, 0). Mouse wheel scrolls the view only then, otherwise it scrolls the pane around the panel.
+	 */
+	public void boardChanged() {
+		this.removeMouseWheelListener(this.scroller);
+		if(model.getInfiniteBoard()!=null) {
+			this.setPreferredSize(new Dimension(View.MAX_BOARD_SIZE));
+			this.viewX=-(View.MAX_BOARD_SIZE.width/FIELD_SIZE/2)*FIELD_SIZE;
+			this.viewY=-(View.MAX_BOARD_SIZE.height/FIELD_SIZE/2)*FIELD_SIZE;
+			this.addMouseWheelListener(this.scroller);
+		}else
+			this.setPreferredSize(new Dimension(model.getHeight()*FIELD_SIZE, model.getWidth()*FIELD_SIZE));
+		this.revalidate();
+		this.repaint();
+	}
+
+	/**
+	 * Repaints fields which model's board recorded as changed since last redraw, or whole panel if board was reset or changed too much (see {@link Board#isAllChanged()}).
+	 * Afterwards recorded changes are cleared. Infinite board doesn't record changes, so whole view is repainted.
+	 */
+	public void redrawChanged() {
+		if(model.getInfiniteBoard()!=null) {
+			this.repaint();
+			return;
+		}
+		Board board=model.getBoard();
+		if(board.isAllChanged()) {
+			this.repaint();
+		}else {
+			for(int k=0; k<board.getChangedCount(); k++) {
+				int index=board.getChanged(k);
+				this.repaintField(index%board.getWidth(), index/board.getWidth());
+			}
+		}
+		board.clearChanges();
+	}
+
+	/**
+	 * Sets chances of bomb drawn over hidden fields, as tint from green (surely safe) to red (surely bomb) with percent. Whole panel is repainted.
+	 * @param probabilities - probabilities indexed like fields of the board, or null to stop drawing them
+	 */
+	public void setProbabilities(double[] probabilities) {
+		this.probabilities=probabilities;
+		this.repaint();
+	}
+
+	/**
+	 * Repaints single field.
+	 * @param x - x position of field
+	 * @param y - y position of field
+	 */
+	public void repaintField(int x, int y) {
+		this.repaint(y*FIELD_SIZE, x*FIELD_SIZE, FIELD_SIZE, FIELD_SIZE);
+	}
+
+	/**
+	 * Moves view of infinite board and repaints it.
+	 * @param dx - pixels to move right
+	 * @param dy - pixels to move down
+	 */
+	public void scrollView(long dx, long dy) {
+		this.viewX+=dx;
+		this.viewY+=dy;
+		this.repaint();
+	}
+
+	/**
+	 * @param px - horizontal position of point in the panel
+	 * @param py - vertical position of point in the panel
+	 * @return true if there is field under the point, which is always true for infinite board
+	 */
+	public boolean isOnBoard(int px, int py) {
+		return model.getInfiniteBoard()!=null || (this.fieldX(py)>=0 && this.fieldY(px)>=0);
+	}
+
+	/**
+	 * @param py - vertical position of point in the panel
+	 * @return x position of field under the point or -1 if point is outside of the board, on infinite board it's any position
+	 */
+	public int fieldX(int py) {
+		if(model.getInfiniteBoard()!=null)
+			return (int)Math.floorDiv(py+this.viewY, (long)FIELD_SIZE);
+		int x=py/FIELD_SIZE;
+		return py>=0 && x<model.getWidth() ? x : -1;
+	}
+
+	/**
+	 * @param px - horizontal position of point in the panel
+	 * @return y position of field under the point or -1 if point is outside of the board, on infinite board it's any position
+	 */
+	public int fieldY(int px) {
+		if(model.getInfiniteBoard()!=null)
+			return (int)Math.floorDiv(px+this.viewX, (long)FIELD_SIZE);
+		int y=px/FIELD_SIZE;
+		return px>=0 && y<model.getHeight() ? y : -1;
+	}
+
+	/**
+	 * Paints fields which intersect clipped area of the panel.
+	 */
+	@Override
+	protected void paintComponent(Graphics g) {
+		long start=Metrics.ENABLED ? System.nanoTime() : 0;
+		Rectangle clip=g.getClipBounds();
+		if(clip==null)
+			clip=new Rectangle(0, 0, this.getWidth(), this.getHeight());
+		g.setColor(Color.GRAY);
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		InfiniteBoard infinite=model.getInfiniteBoard();
+		if(infinite!=null) {
+			this.paintInfinite(g, infinite, clip);
+			if(Metrics.ENABLED)
+				Metrics.PAINT_BOARD.recordSince(start);
+			return;
+		}
+		Board board=model.getBoard();
+		int fromX=Math.max(clip.y/FIELD_SIZE, 0);
+		int toX=Math.min((clip.y+clip.height-1)/FIELD_SIZE, model.getWidth()-1);
+		int fromY=Math.max(clip.x/FIELD_SIZE, 0);
+		int toY=Math.min((clip.x+clip.width-1)/FIELD_SIZE, model.getHeight()-1);
+		for(int x=fromX; x<=toX; ++x)
+			for(int y=fromY; y<=toY; ++y)
+				g.drawImage(this.glyphs[glyphOf(board, x, y)], y*FIELD_SIZE, x*FIELD_SIZE, null);
+		if(this.probabilities!=null && this.probabilities.length==board.size())
+			this.paintProbabilities(g, board, fromX, toX, fromY, toY);
+		if(Metrics.ENABLED)
+			Metrics.PAINT_BOARD.recordSince(start);
+	}
+
+	/**
+	 * Paints fields of infinite board seen in clipped area of the view.
+	 */
+	private void paintInfinite(Graphics g, InfiniteBoard board, Rectangle clip) {
+		int fromX=this.fieldX(clip.y), toX=this.fieldX(clip.y+clip.height-1);
+		int fromY=this.fieldY(clip.x), toY=this.fieldY(clip.x+clip.width-1);
+		for(int x=fromX; x-1!=toX; ++x) //positions may wrap around at the end of int range
+			for(int y=fromY; y-1!=toY; ++y)
+				g.drawImage(this.glyphs[glyphOf(board, x, y)], (int)((long)y*FIELD_SIZE-this.viewX), (int)((long)x*FIELD_SIZE-this.viewY), null);
+	}
+
+	/**
+	 * Paints chance of bomb over hidden fields which are not flagged.
+	 */
+	private void paintProbabilities(Graphics g, Board board, int fromX, int toX, int fromY, int toY) {
+		g.setFont(g.getFont().deriveFont(Font.PLAIN, 11f));
+		FontMetrics metrics=g.getFontMetrics();
+		for(int x=fromX; x<=toX; ++x)
+			for(int y=fromY; y<=toY; ++y) {
+				double probability=this.probabilities[board.index(x, y)];
+				if(board.getRevealed(x, y) || board.getFlag(x, y) || Double.isNaN(probability))
+					continue;
+				float bomb=(float)Math.min(Math.max(probability, 0), 1);
+				g.setColor(new Color(bomb, 1-bomb, 0f, 0.5f));
+				g.fillRect(y*FIELD_SIZE+1, x*FIELD_SIZE+1, FIELD_SIZE-2, FIELD_SIZE-2);
+				String text=Math.round(probability*100)+"%";
+				g.setColor(Color.WHITE);
+				g.drawString(text, y*FIELD_SIZE+(FIELD_SIZE-metrics.stringWidth(text))/2, x*FIELD_SIZE+(FIELD_SIZE-metrics.getHeight())/2+metrics.getAscent());
+			}
+	}
+
+	/**
+	 * Picks look of the field. Unrevealed fields ale whole black. Flagged fields are blue with black F. Fields not neighboring bombs are plain white when revealed and fields with bombs are white with red X.
+	 * Other revealed fields show number of neighbouring bombs.
+	 */
+	private static int glyphOf(Board board, int x, int y) {
+		if(board.getRevealed(x, y)) {
+			if(board.getBomb(x, y))
+				return BOMB;
+			int neighbours=board.getNeighbours(x, y);
+			return neighbours==0 ? EMPTY : neighbours;
+		}
+		return board.getFlag(x, y) ? FLAGGED : HIDDEN;
+	}
+
+	private static int glyphOf(InfiniteBoard board, int x, int y) {
+		if(board.getRevealed(x, y)) {
+			if(board.getBomb(x, y))
+				return BOMB;
+			int neighbours=board.getNeighbours(x, y);
+			return neighbours==0 ? EMPTY : neighbours;
+		}
+		return board.getFlag(x, y) ? FLAGGED : HIDDEN;
+	}
+
+	/**
+	 * Draws image of one look of the field, with one pixel wide gray border.
+	 */
+	private static Image createGlyph(int glyph) {
+		BufferedImage image=new BufferedImage(FIELD_SIZE, FIELD_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g=image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setColor(Color.GRAY);
+		g.fillRect(0, 0, FIELD_SIZE, FIELD_SIZE);
+
+		String text=null;
+		if(glyph==FLAGGED) {
+			g.setColor(Color.BLUE);
+			text="F";
+		}else if(glyph==BOMB || glyph==EMPTY) {
+			g.setColor(Color.WHITE);
+			text=glyph==BOMB ? "X" : null;
+		}else {
+			g.setColor(Color.BLACK);
+			text=glyph==HIDDEN ? null : String.valueOf(glyph);
+		}
+		g.fillRect(1, 1, FIELD_SIZE-2, FIELD_SIZE-2);
+
+		if(text!=null) {
+			g.setColor(glyph==FLAGGED ? Color.BLACK : glyph==BOMB ? Color.RED : Color.WHITE);
+			g.setFont(g.getFont().deriveFont(Font.BOLD, 16f));
+			FontMetrics metrics=g.getFontMetrics();
+			g.drawString(text, (FIELD_SIZE-metrics.stringWidth(text))/2, (FIELD_SIZE-metrics.getHeight())/2+metrics.getAscent());
+		}
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Moves view of infinite board when mouse is dragged with middle button or it's wheel is turned. Wheel moves view by one field per notch.
+	 * @author Tomek
+	 *
+	 */
+	private class ViewScroller extends MouseAdapter {
+		private int lastX, lastY;
+
+		@Override
+		public void mouseMoved(MouseEvent e) {
+			this.lastX=e.getX();
+			this.lastY=e.getY();
+		}
+
+		@Override
+		public void mouseDragged(MouseEvent e) {
+			if(SwingUtilities.isMiddleMouseButton(e) && model.getInfiniteBoard()!=null)
+				scrollView(this.lastX-e.getX(), this.lastY-e.getY());
+			this.mouseMoved(e);
+		}
+
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			long distance=(long)e.getWheelRotation()*FIELD_SIZE;
+			if(e.isShiftDown())
+				scrollView(distance, 0);
+			else
+				scrollView(0, distance);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package minesweeper;
+
+/**
+ * This is small pool of boards kept by their size, so switching between game modes doesn't allocate new board once every mode was played.
+ * Boards are kept in array from the most recently returned one and the oldest one is dropped when pool is full, so looking for a board doesn't allocate anything.
+ * Boards with more than {@link #MAX_FIELDS} fields are never kept, so pool doesn't hold memory of big custom boards.
+ * @author Tomek
+ *
+ */
+class BoardPool {
+	/** Most boards kept in pool. */
+	static final int MAX_BOARDS=4;
+	/** Most fields of board kept in pool. */
+	static final int MAX_FIELDS=1<<20;
+
+	private final Board[] boards=new Board[MAX_BOARDS];
+	private int count;
+
+	/**
+	 * @return blank board of given size, taken from pool if it has one
+	 */
+	Board take(int width, int height) {
+		for(int k=0; k<this.count; ++k) {
+			Board board=this.boards[k];
+			if(board.getWidth()==width && board.getHeight()==height) {
+				System.arraycopy(this.boards, k+1, this.boards, k, this.count-k-1);
+				this.boards[--this.count]=null;
+				board.reset();
+				return board;
+			}
+		}
+		return new Board(width, height);
+	}
+
+	/**
+	 * @return number of fields of all boards kept in pool
+	 */
+	long getFields() {
+		long fields=0;
+		for(int k=0; k<this.count; ++k)
+			fields+=this.boards[k].size();
+		return fields;
+	}
+
+	/**
+	 * Keeps board which is no longer used, so it can be taken again.
+	 */
+	void put(Board board) {
+		if(board.size()>MAX_FIELDS)
+			return;
+		if(this.count==MAX_BOARDS)
+			this.count--;
+		System.arraycopy(this.boards, 0, this.boards, 1, this.count);
+		this.boards[0]=board;
+		this.count++;
+	}
+}
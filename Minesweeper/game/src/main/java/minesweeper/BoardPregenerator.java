@@ -0,0 +1,149 @@
+package minesweeper;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is generator which prepares boards for the next games of one game mode in background, while the player is still playing.
+ * Ready boards have bombs placed anywhere and neighbours counted, so first click only has to move bomb away from clicked field if there is one (see {@link GameEngine#revealTile(int, int)}),
+ * which takes constant time instead of placing all bombs and counting neighbours of whole board.
+ * <p>
+ * At most {@link #READY_BOARDS} boards are kept ready. Boards are prepared by one thread shared by all generators, which refills the queue whenever board is taken or game mode changes.
+ * Boards of finished games are given back to the generator and filled again, so preparing boards doesn't allocate after the first few games.
+ * @author Tomek
+ *
+ */
+public class BoardPregenerator {
+	/** Most boards kept ready. */
+	static final int READY_BOARDS=2;
+
+	private static final ExecutorService WORKER=Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread=new Thread(runnable, "board-pregenerator");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final int[] NO_FIELDS=new int[0];
+
+	/**
+	 * Game mode for which boards are prepared.
+	 */
+	private static class Mode {
+		final int width, height, bombs;
+
+		Mode(int width, int height, int bombs) {
+			this.width=width;
+			this.height=height;
+			this.bombs=bombs;
+		}
+
+		boolean is(int width, int height, int bombs) {
+			return this.width==width && this.height==height && this.bombs==bombs;
+		}
+	}
+
+	/**
+	 * Prepared board with mode for which it was prepared.
+	 */
+	private static class Ready {
+		final Mode mode;
+		final Board board;
+
+		Ready(Mode mode, Board board) {
+			this.mode=mode;
+			this.board=board;
+		}
+	}
+
+	private final ArrayBlockingQueue<Ready> ready=new ArrayBlockingQueue<Ready>(READY_BOARDS);
+	private final ConcurrentLinkedQueue<Board> recycled=new ConcurrentLinkedQueue<Board>();
+	private final AtomicBoolean scheduled=new AtomicBoolean();
+	/** Used only by worker thread. */
+	private final Random random=new Random();
+	private volatile Mode mode;
+
+	/**
+	 * Starts preparing boards for given mode, unless they are already prepared for it. Boards prepared for other mode are dropped.
+	 * @param width - width of board
+	 * @param height - height of board
+	 * @param bombs - number of bombs, at most one less than number of fields
+	 */
+	public void prepare(int width, int height, int bombs) {
+		Mode mode=this.mode;
+		if(mode!=null && mode.is(width, height, bombs))
+			return;
+		this.mode=new Mode(width, height, bombs);
+		this.ready.clear();
+		this.recycled.clear();
+		this.schedule();
+	}
+
+	/**
+	 * Takes ready board of given mode and starts preparing the next one.
+	 * @return board with bombs and neighbours, or null if none is ready yet
+	 */
+	public Board take(int width, int height, int bombs) {
+		Mode mode=this.mode;
+		if(mode==null || !mode.is(width, height, bombs)) {
+			this.prepare(width, height, bombs);
+			return null;
+		}
+		Ready ready=this.ready.poll();
+		while(ready!=null && ready.mode!=mode) //finished by worker just when mode was changing
+			ready=this.ready.poll();
+		this.schedule();
+		return ready!=null ? ready.board : null;
+	}
+
+	/**
+	 * Stops preparing boards and drops boards which are ready or were given back, so generator doesn't hold memory of mode which is no longer played. Boards are prepared again when {@link #prepare(int, int, int)} is called.
+	 */
+	public void clear() {
+		this.mode=null;
+		this.ready.clear();
+		this.recycled.clear();
+	}
+
+	/**
+	 * @return true if board of current mode is ready to be taken
+	 */
+	boolean isReady() {
+		return !this.ready.isEmpty();
+	}
+
+	/**
+	 * Gives back board which is no longer used, so it can be filled again.
+	 */
+	public void recycle(Board board) {
+		if(this.recycled.size()<READY_BOARDS)
+			this.recycled.offer(board);
+	}
+
+	private void schedule() {
+		if(this.scheduled.compareAndSet(false, true))
+			WORKER.execute(this::fill);
+	}
+
+	/**
+	 * Prepares boards on worker thread until queue is full.
+	 */
+	private void fill() {
+		this.scheduled.set(false);
+		while(true) {
+			Mode mode=this.mode;
+			if(mode==null || this.ready.remainingCapacity()==0)
+				return;
+			Board board=this.recycled.poll();
+			if(board==null || board.getWidth()!=mode.width || board.getHeight()!=mode.height)
+				board=new Board(mode.width, mode.height);
+			board.reset();
+			board.placeBombs(mode.bombs, NO_FIELDS, this.random);
+			board.calcNeighbours();
+			if(this.mode==mode)
+				this.ready.offer(new Ready(mode, board));
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package minesweeper;
+
+/**
+ * This is square piece of {@link InfiniteBoard}. It keeps fields in the same packed bytes as {@link Board}, row after row.
+ * Bombs and neighbour counts are generated from world seed when chunk is created, so chunk which was never changed can be dropped and generated again at any time.
+ * @author Tomek
+ *
+ */
+class Chunk {
+	/** Number of bits of coordinate inside chunk. */
+	static final int SHIFT=6;
+	/** Length of chunk's side. */
+	static final int SIZE=1<<SHIFT;
+	static final int MASK=SIZE-1;
+
+	final long key;
+	final byte[] cells;
+	/** True if fields were revealed or flagged since chunk was generated or read from disk. */
+	boolean dirty;
+
+	Chunk(long key, byte[] cells) {
+		this.key=key;
+		this.cells=cells;
+	}
+
+	/**
+	 * Generates fields of chunk. Neighbour counts of fields at chunk's border are taken from bombs of neighbouring chunks, which are found by the same hash, so neighbouring chunks don't have to exist.
+	 * @param world - world which decides where bombs are
+	 * @param key - key of chunk (see {@link #key(int, int)})
+	 * @return new chunk
+	 */
+	static Chunk generate(InfiniteBoard world, long key) {
+		int fromX=chunkX(key)<<SHIFT, fromY=chunkY(key)<<SHIFT;
+		int padded=SIZE+2;
+		byte[] bombs=new byte[padded*padded];
+		for(int j=0; j<padded; ++j)
+			for(int i=0; i<padded; ++i)
+				bombs[j*padded+i]=(byte)(world.isBomb(fromX+i-1, fromY+j-1) ? 1 : 0);
+		byte[] cells=new byte[SIZE*SIZE];
+		for(int y=0; y<SIZE; ++y)
+			for(int x=0; x<SIZE; ++x) {
+				int c=(y+1)*padded+x+1;
+				if(bombs[c]!=0) {
+					cells[y*SIZE+x]=Board.BOMB;
+					continue;
+				}
+				cells[y*SIZE+x]=(byte)(bombs[c-padded-1]+bombs[c-padded]+bombs[c-padded+1]+bombs[c-1]+bombs[c+1]+bombs[c+padded-1]+bombs[c+padded]+bombs[c+padded+1]);
+			}
+		return new Chunk(key, cells);
+	}
+
+	/**
+	 * @return key of chunk which contains field (x, y)
+	 */
+	static long key(int x, int y) {
+		return ((long)(x>>SHIFT)<<32)|((y>>SHIFT)&0xFFFFFFFFL);
+	}
+
+	static int chunkX(long key) {
+		return (int)(key>>32);
+	}
+
+	static int chunkY(long key) {
+		return (int)key;
+	}
+
+	/**
+	 * @return index of field (x, y) in chunk which contains it
+	 */
+	static int index(int x, int y) {
+		return (y&MASK)<<SHIFT|(x&MASK);
+	}
+}
@@ -0,0 +1,211 @@
+package minesweeper;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import javax.swing.*;
+
+/**
+ * This is controller class for minesweeper. It's main purpose is to listen when different fields from view were clicked (and how) and act accordingly. 
+ * @author Tomek
+ *
+ */
+public class Controller{
+	private Model model;
+	private View view;
+	int width, height, bombs;
+	/** Density of bombs in infinite game, about as dense as expert mode. */
+	static final double INFINITE_DENSITY=0.2;
+	
+	Controller(Model model, View view){
+		this.model=model;
+		this.view=view;
+		
+		this.view.addActionResetListener(new ActionResetListener());
+		this.view.addActionHintListener(new ActionHintListener());
+		this.view.addActionNoGuessListener(new ActionNoGuessListener());
+		this.view.addActionProbabilitiesListener(new ActionProbabilitiesListener());
+		this.view.addActionSaveListener(new ActionSaveListener());
+		this.view.addActionLoadListener(new ActionLoadListener());
+		this.view.addMouseGridListener(new MouseGridListener());
+		this.view.addActionMenuListener(new ActionMenuListener());
+	}
+	/**
+	 * This class is used to listen for user to input desired game parameters if he had selected custom game mode.
+	 * it will then call model to remake itself and call view to dispose customMenu.
+	 * @author Tomek
+	 *
+	 */
+	class CustomMenuListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			width = Integer.parseInt(view.widthInput.getText());
+			height = Integer.parseInt(view.heightInput.getText());
+			bombs = Integer.parseInt(view.bombsInput.getText());
+			model.changeMode(height, width, bombs);
+			view.disposeCustomMenu();
+		}
+	}
+	
+	/**
+	 * This class is used to listen for dropdown menu in view which contains predefined game settings (see {@link Difficulty}).
+	 * If the custom field is selected then the showCustomMenu() from view will be called, infinite field starts infinite game with {@link #INFINITE_DENSITY}.
+	 * @author Tomek
+	 *
+	 */
+	class ActionMenuListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			JComboBox cb = (JComboBox)e.getSource();
+			String msg = (String)cb.getSelectedItem();
+			Difficulty difficulty = Difficulty.fromLabel(msg);
+			if(difficulty!=null) {
+				model.changeMode(difficulty.getWidth(), difficulty.getHeight(), difficulty.getBombs());
+			}else if(msg.equals("Custom")){
+				view.showCustomMenu(new CustomMenuListener());
+			}else if(msg.equals("Infinite")){
+				model.startInfinite(INFINITE_DENSITY);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Purpose of this class is to listen for reset button to be clicked.
+	 * @author Tomek
+	 *
+	 */
+	class ActionResetListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {   
+				model.reset();
+	        }
+		}
+	
+	/**
+	 * Purpose of this class is to listen for hint button to be clicked.
+	 * @author Tomek
+	 *
+	 */
+	class ActionHintListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			model.hint();
+		}
+	}
+	
+	/**
+	 * Purpose of this class is to listen for no guess check box to be switched and turn no-guess mode of the model on or off.
+	 * @author Tomek
+	 *
+	 */
+	class ActionNoGuessListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			model.setNoGuess(((JCheckBox)e.getSource()).isSelected());
+		}
+	}
+	
+	/**
+	 * Purpose of this class is to listen for save button to be clicked. It asks for file and saves game to it.
+	 * @author Tomek
+	 *
+	 */
+	class ActionSaveListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			File file = view.chooseGameFile(true);
+			if(file==null)
+				return;
+			try {
+				model.save(file.toPath());
+			}catch(IOException exception) {
+				view.showError("Can't save game: "+exception.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Purpose of this class is to listen for load button to be clicked. It asks for file and loads game from it.
+	 * @author Tomek
+	 *
+	 */
+	class ActionLoadListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			File file = view.chooseGameFile(false);
+			if(file==null)
+				return;
+			try {
+				model.load(file.toPath());
+			}catch(IOException exception) {
+				view.showError("Can't load game: "+exception.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Purpose of this class is to listen for probabilities check box to be switched and show or hide probabilities on the gameboard.
+	 * @author Tomek
+	 *
+	 */
+	class ActionProbabilitiesListener implements ActionListener{
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			view.showProbabilities(((JCheckBox)e.getSource()).isSelected());
+		}
+	}
+	
+	/**
+	 * Purpose of this class is to listen which field and by which mouse button was clicked.
+	 * Field under the mouse is found in constant time from position of the event on the gameboard (see {@link BoardPanel#fieldX(int)}).
+	 * @author Tomek
+	 *
+	 */
+	class MouseGridListener extends MouseAdapter {
+		boolean pressed;
+		int x=-1;
+		int y=-1;
+		
+		/**
+		 * This function remembers which field was under the mouse when button was pressed.
+		 */
+		public void mousePressed(MouseEvent e) {
+			pressed=view.getBoardPanel().isOnBoard(e.getX(), e.getY());
+			x=view.getBoardPanel().fieldX(e.getY());
+			y=view.getBoardPanel().fieldY(e.getX());
+		}
+		
+		/**
+		 * This function listen for mouse button release on game field. If it was released over the same field on which it was pressed, field counts as clicked even if the mouse moved a bit in between.
+		 * Then it checks which mouse button was pressed and with that knowledge it runs one of two model functions to reveal title of change it state.
+		 * It passes params x and y which correspond to fouded field's position.
+		 */
+		public void mouseReleased(MouseEvent e) {
+			int pressedX=x, pressedY=y;
+			boolean wasPressed=pressed;
+			pressed=false;
+			x=-1;
+			y=-1;
+			if(!wasPressed || !view.getBoardPanel().isOnBoard(e.getX(), e.getY()) || view.getBoardPanel().fieldX(e.getY())!=pressedX || view.getBoardPanel().fieldY(e.getX())!=pressedY)
+				return;
+	        switch (e.getButton()) {
+	            case MouseEvent.BUTTON1:
+	            {
+	            	model.revealTile(pressedX, pressedY);
+	            	break;
+	            }
+	            case MouseEvent.BUTTON3:
+	            {	
+	            	model.changeState(pressedX, pressedY);
+	            	break;
+	            }
+	            default:
+	                break;
+	        }
+		}
+	}
+}
\ No newline at end of file
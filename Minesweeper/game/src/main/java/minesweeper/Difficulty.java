@@ -0,0 +1,49 @@
+package minesweeper;
+
+/**
+ * This enum lists predefined game settings which can be chosen from menu.
+ * @author Tomek
+ *
+ */
+public enum Difficulty {
+	BEGINNER("Beginner", 8, 8, 10),
+	INTERMEDIATE("Intermediate", 16, 16, 40),
+	EXPERT("Expert", 16, 30, 99);
+	
+	private final String label;
+	private final int width, height, bombs;
+	
+	Difficulty(String label, int width, int height, int bombs) {
+		this.label=label;
+		this.width=width;
+		this.height=height;
+		this.bombs=bombs;
+	}
+	
+	/**
+	 * @param label - name shown in menu
+	 * @return settings with given name or null if there are none
+	 */
+	public static Difficulty fromLabel(String label) {
+		for(Difficulty difficulty : values())
+			if(difficulty.label.equals(label))
+				return difficulty;
+		return null;
+	}
+	
+	public String getLabel() {
+		return this.label;
+	}
+	
+	public int getWidth() {
+		return this.width;
+	}
+	
+	public int getHeight() {
+		return this.height;
+	}
+	
+	public int getBombs() {
+		return this.bombs;
+	}
+}
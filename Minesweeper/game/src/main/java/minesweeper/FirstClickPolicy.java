@@ -0,0 +1,87 @@
+package minesweeper;
+
+/**
+ * This class tells how much of the board around first clicked field is kept without bombs (see {@link GameEngine#setFirstClickPolicy(FirstClickPolicy)}).
+ * Policy clears square around clicked field: with radius 0 only clicked field is safe, with radius 1 clicked field has no bombs around it and opens at least the 3x3 square.
+ * Every field of cleared square is part of the opening, because fields inside it have no bombs around them and fields on it's edge border them, so opening of at least given size is guaranteed by clearing square with at least that many fields.
+ * <p>
+ * Square is cleared after bombs are placed by moving the few bombs in it to random fields outside it (see {@link Board#moveBomb(int, int)}), so it costs as much as the size of the square, not of the board.
+ * If there are too many bombs to fit outside the square, smaller square is cleared, down to clicked field only.
+ * @author Tomek
+ *
+ */
+public final class FirstClickPolicy {
+	/** Only clicked field is kept without bomb. */
+	public static final FirstClickPolicy SAFE_FIELD=new FirstClickPolicy(0, 1);
+	/** Clicked field and all fields around it are kept without bombs, so first click opens an area. */
+	public static final FirstClickPolicy OPENING=new FirstClickPolicy(1, 1);
+	/** Policy given by minesweeper.firstClick property: safe, opening or minimum number of fields opened, safe field if it's not set or not correct. */
+	public static final FirstClickPolicy DEFAULT=parse(System.getProperty("minesweeper.firstClick", "safe"));
+
+	private final int radius;
+	private final int fields;
+
+	private FirstClickPolicy(int radius, int fields) {
+		this.radius=radius;
+		this.fields=fields;
+	}
+
+	/**
+	 * @param fields - smallest number of fields which first click opens
+	 * @return policy which clears the smallest square around clicked field with at least given number of fields
+	 */
+	public static FirstClickPolicy minOpening(int fields) {
+		if(fields<=1)
+			return SAFE_FIELD;
+		return new FirstClickPolicy(0, fields);
+	}
+
+	/**
+	 * @param text - safe, opening or minimum number of fields opened
+	 * @return policy described by text, {@link #SAFE_FIELD} if it's not correct
+	 */
+	static FirstClickPolicy parse(String text) {
+		if(text.equals("opening"))
+			return OPENING;
+		try {
+			return minOpening(Integer.parseInt(text));
+		}catch(NumberFormatException e) {
+			return SAFE_FIELD;
+		}
+	}
+
+	/**
+	 * Chooses radius of square to clear around clicked field. Squares at the edge of the board are cut by it, so they need bigger radius to have the same number of fields.
+	 * @param width - width of board
+	 * @param height - height of board
+	 * @param x - x position of clicked field
+	 * @param y - y position of clicked field
+	 * @param bombs - number of bombs placed on board
+	 * @return radius of square, 0 if only clicked field is cleared
+	 */
+	int radius(int width, int height, int x, int y, int bombs) {
+		int radius=this.radius;
+		int size=width*height;
+		while(area(width, height, x, y, radius)<Math.min(this.fields, size))
+			radius++;
+		while(radius>0 && area(width, height, x, y, radius)>size-bombs)
+			radius--;
+		return radius;
+	}
+
+	/**
+	 * @return number of fields of square with given radius around field, cut by edges of the board
+	 */
+	static int area(int width, int height, int x, int y, int radius) {
+		return (Math.min(x+radius, width-1)-Math.max(x-radius, 0)+1)*(Math.min(y+radius, height-1)-Math.max(y-radius, 0)+1);
+	}
+
+	@Override
+	public String toString() {
+		if(this==SAFE_FIELD)
+			return "safe";
+		if(this==OPENING)
+			return "opening";
+		return Integer.toString(this.fields);
+	}
+}
@@ -0,0 +1,98 @@
+package minesweeper;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is clock which measures time of one game. Time is read from {@link System#nanoTime()}, so it doesn't drift no matter how late ticks come.
+ * While clock is running it calls it's tick listener at every full second of game time. Ticks of all clocks are run by one shared daemon thread, so games don't start threads of their own.
+ * @author Tomek
+ *
+ */
+public class GameClock {
+	private static final ScheduledThreadPoolExecutor SCHEDULER=new ScheduledThreadPoolExecutor(1, runnable -> {
+		Thread thread=new Thread(runnable, "game-clock");
+		thread.setDaemon(true);
+		return thread;
+	});
+	static {
+		SCHEDULER.setRemoveOnCancelPolicy(true);
+	}
+
+	private final Runnable tickListener;
+	private long elapsedNanos;
+	private long startNanos;
+	private boolean running;
+	private ScheduledFuture<?> ticks;
+
+	/**
+	 * @param tickListener - function called at every full second while clock is running, it's called on clock's thread
+	 */
+	public GameClock(Runnable tickListener) {
+		this.tickListener=tickListener;
+	}
+
+	/**
+	 * Starts or resumes clock. Does nothing if it's already running.
+	 */
+	public synchronized void start() {
+		if(this.running)
+			return;
+		this.running=true;
+		this.startNanos=System.nanoTime();
+		long toNextSecond=TimeUnit.SECONDS.toNanos(1)-this.elapsedNanos%TimeUnit.SECONDS.toNanos(1);
+		this.ticks=SCHEDULER.scheduleAtFixedRate(this::tick, toNextSecond, TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Pauses clock keeping measured time. Does nothing if it's not running.
+	 */
+	public synchronized void stop() {
+		if(!this.running)
+			return;
+		this.elapsedNanos+=System.nanoTime()-this.startNanos;
+		this.running=false;
+		this.ticks.cancel(false);
+		this.ticks=null;
+	}
+
+	/**
+	 * Stops clock and sets measured time back to zero.
+	 */
+	public synchronized void reset() {
+		this.stop();
+		this.elapsedNanos=0;
+	}
+
+	/**
+	 * Stops clock and sets measured time to given value, for example to time of saved game.
+	 * @param elapsedMillis - time in milliseconds
+	 */
+	public synchronized void reset(long elapsedMillis) {
+		this.reset();
+		this.elapsedNanos=TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+	}
+
+	public synchronized boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * @return time measured by the clock in milliseconds
+	 */
+	public synchronized long getElapsedMillis() {
+		long elapsed=this.elapsedNanos;
+		if(this.running)
+			elapsed+=System.nanoTime()-this.startNanos;
+		return TimeUnit.NANOSECONDS.toMillis(elapsed);
+	}
+
+	/**
+	 * Calls tick listener unless clock was stopped after this tick had been taken by scheduler.
+	 */
+	private void tick() {
+		if(this.isRunning())
+			this.tickListener.run();
+	}
+}
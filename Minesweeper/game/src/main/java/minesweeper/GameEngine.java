@@ -0,0 +1,449 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * This is game engine which contains all rules of minesweeper without any user interface, threads or notifications, so it can be used to play many games quickly (for example by bots).
+ * Moves return plain numbers describing what they did and state of the game can be read after every move.
+ * Engine can be reset in constant time, and switched to board of any size played before without allocating anything.
+ * @author Tomek
+ *
+ */
+public class GameEngine {
+	/** Game is in progress. */
+	public static final int RUNNING=0;
+	/** All fields without bomb were revealed and all bombs were flagged. */
+	public static final int WON=1;
+	/** Field with bomb was revealed. */
+	public static final int LOST=2;
+
+	private Board board;
+	private final BoardPool pool=new BoardPool();
+	private int width, height;
+	private int bombCounter;
+	private int revealedCounter;
+	private int totalBombs;
+	private boolean firstClick;
+	private int state;
+	private Random random;
+	private NoGuessGenerator generator;
+	private BoardPregenerator pregenerator;
+	private boolean seededLayout;
+	private FirstClickPolicy firstClickPolicy=FirstClickPolicy.SAFE_FIELD;
+	/** Random fields tried when looking for field without bomb before fields are searched in order. */
+	static final int FREE_FIELD_TRIES=64;
+
+	public GameEngine(int width, int height, int bombs, Random random) {
+		this.random=random;
+		this.changeMode(width, height, bombs);
+	}
+
+	/**
+	 * This function is used to change parameters of game such as field size and number of bombs. It starts new game on board of given size.
+	 * Board is reused if it already has that size, otherwise it is taken from pool of boards used before (see {@link #buildBoard()}).
+	 * @param width - width of field
+	 * @param height - height of field
+	 * @param bombs - number of bombs in game
+	 */
+	public void changeMode(int width, int height, int bombs) {
+		this.width=width;
+		this.height=height;
+		this.totalBombs=bombs;
+		if(this.board!=null && this.board.getWidth()==width && this.board.getHeight()==height)
+			this.reset();
+		else {
+			this.buildBoard();
+			this.resetCounters();
+		}
+		if(this.pregenerator!=null)
+			this.pregenerator.prepare(width, height, this.getPlacedBombs());
+	}
+
+	/**
+	 * This function starts new game with the same parameters (removes bombs, flags etc.).
+	 */
+	public void reset() {
+		this.board.reset();
+		this.resetCounters();
+	}
+
+	private void resetCounters() {
+		this.bombCounter=this.totalBombs;
+		this.revealedCounter=0;
+		this.state=RUNNING;
+		this.firstClick=true;
+	}
+
+	/**
+	 * This function restores saved game: it switches engine to board of given size, reads fields from buffer and sets counters (see {@link GameFile}).
+	 * Board is reused if it already has that size, it's fields are overwritten without clearing them first.
+	 * @param width - width of field
+	 * @param height - height of field
+	 * @param bombs - number of bombs in game
+	 * @param bombCounter - number of bombs minus number of flags
+	 * @param revealedCounter - number of revealed fields
+	 * @param state - {@link #RUNNING}, {@link #WON} or {@link #LOST}
+	 * @param firstClick - true if bombs were not placed yet
+	 * @param cells - buffer with packed fields (see {@link Board#read(ByteBuffer)})
+	 */
+	public void restore(int width, int height, int bombs, int bombCounter, int revealedCounter, int state, boolean firstClick, ByteBuffer cells) {
+		this.width=width;
+		this.height=height;
+		this.totalBombs=bombs;
+		if(this.board==null || this.board.getWidth()!=width || this.board.getHeight()!=height)
+			this.buildBoard();
+		this.board.read(cells);
+		this.bombCounter=bombCounter;
+		this.revealedCounter=revealedCounter;
+		this.state=state;
+		this.firstClick=firstClick;
+	}
+
+	/**
+	 * Gives engine blank board of it's size. Previous board is kept in pool of boards by size and board of the same size is taken from it if it's there, so switching between game modes allocates nothing after every mode was played once (see {@link BoardPool}).
+	 */
+	public void buildBoard() {
+		if(this.board!=null)
+			this.pool.put(this.board);
+		this.board=this.pool.take(this.width, this.height);
+	}
+
+	/**
+	 * Function places number of bombs specified by engine's totalBombs variable.
+	 * It places them on randomly selected fields other than forbidden one, drawing numbers from engine's random generator (see {@link Board#placeBombs(int, int, Random)}).
+	 * If there are more bombs than fields, every field except forbidden one gets a bomb.
+	 * @param xForbidden - x position of field which can't have bomb.
+	 * @param yForbidden - y position of field which can't have bomb.
+	 */
+	public void placeBombs(int xForbidden, int yForbidden) {
+		this.board.placeBombs(this.getPlacedBombs(), this.board.index(xForbidden, yForbidden), this.random);
+	}
+
+	/**
+	 * @return number of bombs which are really placed, at most one less than number of fields
+	 */
+	private int getPlacedBombs() {
+		return Math.min(this.totalBombs, this.width*this.height-1);
+	}
+
+	/**
+	 * Replaces board with board prepared in background (see {@link BoardPregenerator}) if one is ready. Bombs are moved away from clicked field later, by {@link #clearFirstClick(int, int)}.
+	 * Board is not replaced if player put flags on it before first click.
+	 * @return true if board was replaced
+	 */
+	private boolean takePregenerated() {
+		if(this.pregenerator==null || this.bombCounter!=this.totalBombs)
+			return false;
+		Board ready=this.pregenerator.take(this.width, this.height, this.getPlacedBombs());
+		if(ready==null)
+			return false;
+		this.pregenerator.recycle(this.board);
+		this.board=ready;
+		return true;
+	}
+
+	/**
+	 * Moves every bomb from square around clicked field chosen by first click policy (see {@link FirstClickPolicy}) to random field outside it.
+	 * Only neighbour counts around moved bombs are changed, so it takes time proportional to the size of the square, whatever the size of the board.
+	 * @param x - x position of clicked field
+	 * @param y - y position of clicked field
+	 * @return true if any bomb was moved
+	 */
+	private boolean clearFirstClick(int x, int y) {
+		int radius=this.firstClickPolicy.radius(this.width, this.height, x, y, this.getPlacedBombs());
+		int fromX=Math.max(x-radius, 0), toX=Math.min(x+radius, this.width-1);
+		int fromY=Math.max(y-radius, 0), toY=Math.min(y+radius, this.height-1);
+		boolean moved=false;
+		for(int j=fromY; j<=toY; ++j)
+			for(int i=fromX; i<=toX; ++i)
+				if(this.board.getBomb(i, j)) {
+					this.board.moveBomb(this.board.index(i, j), this.freeField(fromX, toX, fromY, toY));
+					moved=true;
+				}
+		return moved;
+	}
+
+	/**
+	 * Finds random field without bomb outside given rectangle by trying random fields and, if they all have bombs, by going over fields in order from random one. Board must have such field.
+	 * @param fromX - x position of the first column of rectangle
+	 * @param toX - x position of the last column of rectangle
+	 * @param fromY - y position of the first row of rectangle
+	 * @param toY - y position of the last row of rectangle
+	 * @return index of field
+	 */
+	private int freeField(int fromX, int toX, int fromY, int toY) {
+		int size=this.board.size();
+		for(int tries=0; tries<FREE_FIELD_TRIES; ++tries) {
+			int i=this.random.nextInt(size);
+			if(this.isFree(i, fromX, toX, fromY, toY))
+				return i;
+		}
+		for(int i=this.random.nextInt(size), k=0; k<size; ++k, i=(i+1)%size)
+			if(this.isFree(i, fromX, toX, fromY, toY))
+				return i;
+		throw new IllegalStateException("Board has no field without bomb");
+	}
+
+	/**
+	 * @return true if field has no bomb and is outside given rectangle
+	 */
+	private boolean isFree(int i, int fromX, int toX, int fromY, int toY) {
+		int x=i%this.width, y=i/this.width;
+		return (x<fromX || x>toX || y<fromY || y>toY) && !this.board.getBomb(x, y);
+	}
+
+	/**
+	 * Function places bombs on given fields instead of random ones and calculates neighbours, so the first click doesn't place them again. It is used to play again board which was recorded (see {@link JournalReplay}).
+	 * @param fields - indices of fields with bombs
+	 */
+	public void placeBombs(int[] fields) {
+		for(int i=0; i<fields.length; ++i)
+			this.board.setBomb(fields[i]%this.width, fields[i]/this.width);
+		this.calcNeighbours();
+		this.firstClick=false;
+	}
+
+	/**
+	 * Function places number of bombs specified by engine's totalBombs variable like {@link #placeBombs(int, int)}, but it keeps bombs off the clicked field and all fields around it, so first click always opens an area.
+	 * If there are too many bombs to leave these fields empty, only the clicked field is kept empty.
+	 * @param x - x position of clicked field
+	 * @param y - y position of clicked field
+	 */
+	public void placeBombsAround(int x, int y) {
+		int fromX=Math.max(x-1, 0), toX=Math.min(x+1, this.width-1);
+		int fromY=Math.max(y-1, 0), toY=Math.min(y+1, this.height-1);
+		int[] forbidden=new int[(toX-fromX+1)*(toY-fromY+1)];
+		if(this.totalBombs>this.board.size()-forbidden.length) {
+			this.placeBombs(x, y);
+			return;
+		}
+		int k=0;
+		for(int j=fromY; j<=toY; ++j)
+			for(int i=fromX; i<=toX; ++i)
+				forbidden[k++]=this.board.index(i, j);
+		this.board.placeBombs(this.totalBombs, forbidden, this.random);
+	}
+
+	/**
+	 * Calculate how many bombs are on adjacent fields and mark it on that field's neighbors variable (see {@link Board#calcNeighbours()}).
+	 */
+	public void calcNeighbours() {
+		this.board.calcNeighbours();
+	}
+
+	/**
+	 * This function is used to reveal all fields with zero neighbors adjacent to the clicked field (including it) together with numbered fields bordering them (see {@link Board#revealArea(int, int)}).
+	 * @param x - x position in array
+	 * @param y - y position in array
+	 * @return number of newly revealed fields
+	 */
+	public int revealZeros(int x, int y) {
+		int revealed=this.board.revealArea(x, y);
+		this.revealedCounter+=revealed;
+		return revealed;
+	}
+
+	/**
+	 * This function will reveal unrevealed field.
+	 * If it is first click of the game, function will call functions to place bombs and calculate neighbors. Bombs are placed by no-guess generator if engine has one and it finds a board in time (see {@link NoGuessGenerator}),
+	 * otherwise board prepared by pregenerator is taken if it's ready (see {@link #setPregenerator(BoardPregenerator)}) and bombs are moved away from clicked field as first click policy says (see {@link #setFirstClickPolicy(FirstClickPolicy)}).
+	 * Flag on revealed field is removed first. If the revealed field contained bomb, game is lost.
+	 * It also checks if the move will end the game (see {@link #endGame()}).
+	 * Duration of the move and of first click preparation, and number of fields revealed, are recorded if metrics are enabled (see {@link Metrics}).
+	 * @param x - x position in array
+	 * @param y - y position in array
+	 * @return number of fields revealed by the move, 0 if nothing happened
+	 */
+	public int revealTile(int x, int y) {
+		if(!Metrics.ENABLED)
+			return this.reveal(x, y);
+		long start=System.nanoTime();
+		int revealed=this.reveal(x, y);
+		Metrics.REVEAL_TILE.recordSince(start);
+		return revealed;
+	}
+
+	private int reveal(int x, int y) {
+		if(this.firstClick) {
+			long start=Metrics.ENABLED ? System.nanoTime() : 0;
+			boolean counted=false;
+			this.seededLayout=false;
+			boolean generated=this.generator!=null; //generator draws from engine's random even if it fails
+			boolean clear=!generated || !this.generator.generate(this, x, y);
+			if(clear) {
+				counted=this.takePregenerated();
+				if(!counted)
+					this.placeBombs(x, y);
+			}
+			if(Metrics.ENABLED) {
+				Metrics.PLACE_BOMBS.recordSince(start);
+				start=System.nanoTime();
+			}
+			if(!counted) {
+				this.calcNeighbours();
+				if(Metrics.ENABLED) {
+					Metrics.CALC_NEIGHBOURS.recordSince(start);
+					start=System.nanoTime();
+				}
+			}
+			if(clear) {
+				boolean moved=this.clearFirstClick(x, y);
+				this.seededLayout=!generated && !counted && !moved;
+				if(Metrics.ENABLED)
+					Metrics.CLEAR_OPENING.recordSince(start);
+			}
+			this.firstClick=false;
+		}else if(this.state==LOST)
+			return 0;
+
+		if(this.board.getRevealed(x, y))
+			return 0;
+		if(this.board.getFlag(x, y))
+			this.changeState(x, y);
+		int revealed;
+		if(this.board.getBomb(x, y)) {
+			this.board.reveal(x, y);
+			this.revealedCounter++;
+			this.state=LOST;
+			revealed=1;
+		}else {
+			revealed=this.revealZeros(x, y);
+			if(Metrics.ENABLED)
+				Metrics.REVEAL_ZEROS.record(revealed);
+		}
+		this.endGame();
+		return revealed;
+	}
+
+	/**
+	 * This function is called when user wants to flag or remove flag from field.
+	 * It also checks for the end of game (see {@link #endGame()}).
+	 * @param x - x position in array
+	 * @param y - y position in array
+	 * @return 1 if flag was added, -1 if it was removed and 0 if field can't be flagged
+	 */
+	public int changeState(int x, int y) {
+		if(this.state==LOST || this.board.getRevealed(x, y))
+			return 0;
+		int change;
+		if(this.board.getFlag(x, y)) {
+			this.board.removeFlag(x, y);
+			this.bombCounter++;
+			change=-1;
+		}else {
+			this.board.setFlag(x, y);
+			this.bombCounter--;
+			change=1;
+		}
+		this.endGame();
+		return change;
+	}
+
+	/**
+	 * This function checks if the game has ended and if yes in which way.
+	 * If all fields with bomb have been marked and all other fields were revealed then the game is won.
+	 * @return state of the game
+	 */
+	public int endGame() {
+		if(this.state!=LOST && this.revealedCounter==(this.height*this.width-this.totalBombs) && this.bombCounter==0)
+			this.state=WON;
+		return this.state;
+	}
+
+	/**
+	 * Sets generator used to place bombs. Generator created with fixed seed makes every game reproducible.
+	 * @param random - source of random numbers
+	 */
+	public void setRandom(Random random) {
+		this.random=random;
+	}
+
+	public Random getRandom() {
+		return this.random;
+	}
+
+	/**
+	 * Sets generator which places bombs on first click so that the game can be finished without guessing. Null turns it off and bombs are placed randomly.
+	 * @param generator - no-guess generator or null
+	 */
+	public void setNoGuess(NoGuessGenerator generator) {
+		this.generator=generator;
+	}
+
+	/**
+	 * Sets generator which prepares boards of engine's game mode in background, so first click only takes ready board. No-guess generator, if engine has one, is used first. Null turns it off.
+	 * @param pregenerator - board pregenerator or null
+	 */
+	public void setPregenerator(BoardPregenerator pregenerator) {
+		this.pregenerator=pregenerator;
+		if(pregenerator!=null)
+			pregenerator.prepare(this.width, this.height, this.getPlacedBombs());
+	}
+
+	/**
+	 * Sets how much of the board around first clicked field is kept without bombs. It applies to the game which wasn't started yet and all following games, but not to boards of no-guess generator, which keeps clicked field and fields around it empty anyway.
+	 * @param policy - first click policy, {@link FirstClickPolicy#SAFE_FIELD} by default
+	 */
+	public void setFirstClickPolicy(FirstClickPolicy policy) {
+		this.firstClickPolicy=policy;
+	}
+
+	public FirstClickPolicy getFirstClickPolicy() {
+		return this.firstClickPolicy;
+	}
+
+	/**
+	 * @return true if bombs of current game were placed from engine's random generator by {@link #placeBombs(int, int)}, so the same generator places them again.
+	 * It's false for boards of no-guess generator or pregenerator and for boards whose bombs were moved by first click policy, whose bombs must be recorded to replay the game.
+	 * It's false also when no-guess generator ran out of time and bombs were placed randomly, because the generator has already drawn from engine's random generator.
+	 */
+	public boolean hasSeededLayout() {
+		return this.seededLayout;
+	}
+
+	/**
+	 * @return number of fields of boards which engine keeps for reuse, besides it's current board (see {@link #buildBoard()})
+	 */
+	long getPooledFields() {
+		return this.pool.getFields();
+	}
+
+	/**
+	 * @return {@link #RUNNING}, {@link #WON} or {@link #LOST}
+	 */
+	public int getState() {
+		return this.state;
+	}
+
+	/**
+	 * @return true if no field was revealed yet, so bombs are not placed
+	 */
+	public boolean isFirstClick() {
+		return this.firstClick;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public int getBombCounter() {
+		return this.bombCounter;
+	}
+
+	public int getRevealedCounter() {
+		return this.revealedCounter;
+	}
+
+	public int getTotalBombs() {
+		return this.totalBombs;
+	}
+
+	public Board getBoard() {
+		return this.board;
+	}
+}
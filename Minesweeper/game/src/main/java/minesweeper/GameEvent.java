@@ -0,0 +1,42 @@
+package minesweeper;
+
+/**
+ * This enum lists kinds of changes in the game which listeners are notified about.
+ * Every kind has it's own bit, so all changes made by one move are sent together as single int (see {@link GameListener#gameChanged(int)}).
+ * Fields changed by the move are not part of the event, they are recorded by model's board (see {@link Board#getChangedCount()}).
+ * @author Tomek
+ *
+ */
+public enum GameEvent {
+	/** Model's board was replaced by new mode, loaded or replayed game, so it must be taken again. It's size may be the same as before. */
+	MODE_CHANGED,
+	/** Some fields of the board were revealed, flagged or unflagged. */
+	FIELDS,
+	/** Number of bombs left has changed. */
+	BOMB_COUNTER,
+	/** Timer has changed. */
+	TIMER,
+	/** Game was reset. */
+	RESET,
+	/** Game was won. */
+	WON,
+	/** Game was lost. */
+	LOST;
+	
+	private final int mask=1<<this.ordinal();
+	
+	/**
+	 * @return bit of this kind of event
+	 */
+	public int mask() {
+		return this.mask;
+	}
+	
+	/**
+	 * @param events - set of events sent to listener
+	 * @return true if this kind of event is in the set
+	 */
+	public boolean in(int events) {
+		return (events&this.mask)!=0;
+	}
+}
@@ -0,0 +1,142 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This is binary file format of saved game. File is written and read through memory mapping, so fields go between file and board in one bulk copy and operating system pages them in as they are needed.
+ * <p>
+ * File starts with {@value #HEADER_SIZE} bytes long header of big-endian numbers:
+ * magic "MSWP", format version, width, height, total bombs, bomb counter, revealed counter, game state, first-click flag (all ints), elapsed time in milliseconds (long) and CRC32 checksum (int).
+ * Checksum covers header up to the checksum itself and all fields. Header is followed by packed fields of the board, one byte each, exactly like they are kept in {@link Board}.
+ * Checksum only finds damaged files, so when game is loaded it's counters and state are also checked against fields before engine gets them.
+ * @author Tomek
+ *
+ */
+public class GameFile {
+	/** Four bytes which start every saved game: "MSWP". */
+	static final int MAGIC=0x4D535750;
+	/** Version of format written by this class. */
+	static final int VERSION=1;
+	/** Size of header in bytes. Fields start right after it. */
+	static final int HEADER_SIZE=64;
+	/** Position of checksum in header. */
+	private static final int CHECKSUM=48;
+
+	private GameFile() {
+	}
+
+	/**
+	 * This function writes game to file, replacing it if it exists.
+	 * @param file - path of the file
+	 * @param engine - engine with the game
+	 * @param elapsedMillis - game time
+	 * @throws IOException if file can't be written
+	 */
+	public static void save(Path file, GameEngine engine, long elapsedMillis) throws IOException {
+		Board board=engine.getBoard();
+		if(HEADER_SIZE+(long)board.size()>Integer.MAX_VALUE)
+			throw new IOException("Board of "+board.size()+" fields is too big to be saved in one file mapping: "+file);
+		try(FileChannel channel=FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE+(long)board.size());
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(engine.getWidth());
+			buffer.putInt(engine.getHeight());
+			buffer.putInt(engine.getTotalBombs());
+			buffer.putInt(engine.getBombCounter());
+			buffer.putInt(engine.getRevealedCounter());
+			buffer.putInt(engine.getState());
+			buffer.putInt(engine.isFirstClick() ? 1 : 0);
+			buffer.putInt(0);
+			buffer.putLong(elapsedMillis);
+			buffer.position(HEADER_SIZE);
+			board.write(buffer);
+			buffer.putInt(CHECKSUM, checksum(buffer));
+			buffer.force();
+		}
+	}
+
+	/**
+	 * This function reads game from file into engine. File is checked before engine is changed, so engine keeps it's game if file is broken.
+	 * @param file - path of the file
+	 * @param engine - engine which gets the game
+	 * @return game time in milliseconds
+	 * @throws IOException if file can't be read, isn't a saved game, has unknown version, wrong checksum or state of the game which doesn't agree with it's fields
+	 */
+	public static long load(Path file, GameEngine engine) throws IOException {
+		try(FileChannel channel=FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size()<HEADER_SIZE)
+				throw new IOException("File is too short to be saved game: "+file);
+			if(channel.size()>Integer.MAX_VALUE)
+				throw new IOException("File is too big to be loaded in one mapping, it has "+channel.size()+" bytes: "+file);
+			MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.getInt(0)!=MAGIC)
+				throw new IOException("File is not saved game: "+file);
+			if(buffer.getInt(4)!=VERSION)
+				throw new IOException("Unknown version "+buffer.getInt(4)+" of saved game: "+file);
+			int width=buffer.getInt(8), height=buffer.getInt(12);
+			if(width<=0 || height<=0 || channel.size()!=HEADER_SIZE+(long)width*height)
+				throw new IOException("Size of board doesn't match size of file: "+file);
+			if(buffer.getInt(CHECKSUM)!=checksum(buffer))
+				throw new IOException("Wrong checksum of saved game: "+file);
+			check(buffer, width, height, file);
+			buffer.position(HEADER_SIZE);
+			engine.restore(width, height, buffer.getInt(16), buffer.getInt(20), buffer.getInt(24), buffer.getInt(28), buffer.getInt(32)!=0, buffer);
+			return buffer.getLong(40);
+		}
+	}
+
+	/**
+	 * This function checks that counters and state in header agree with fields, recounting revealed fields, flags and bombs, so the checksum alone isn't trusted to give engine correct game.
+	 * Counters must be the ones engine would have after the moves which made the fields: revealed counter is number of revealed fields, bomb counter is number of bombs less number of flags,
+	 * game is lost exactly when bomb was revealed and it can't still be running when every field without bomb is revealed and bomb counter is zero. Before first click the board has no bombs and no revealed fields.
+	 * @throws IOException if they don't agree
+	 */
+	private static void check(ByteBuffer buffer, int width, int height, Path file) throws IOException {
+		int bombs=buffer.getInt(16), bombCounter=buffer.getInt(20), revealedCounter=buffer.getInt(24), state=buffer.getInt(28), firstClick=buffer.getInt(32);
+		int size=width*height;
+		if(bombs<0 || state<GameEngine.RUNNING || state>GameEngine.LOST || firstClick<0 || firstClick>1 || revealedCounter<0 || revealedCounter>size)
+			throw new IOException("Header of saved game is not correct: "+file);
+		int bombFields=0, revealed=0, flags=0, revealedBombs=0;
+		for(int i=HEADER_SIZE; i<HEADER_SIZE+size; ++i) {
+			int cell=buffer.get(i);
+			if((cell&~(Board.NEIGHBOURS_MASK|Board.BOMB|Board.REVEALED|Board.FLAGGED))!=0 || (cell&Board.NEIGHBOURS_MASK)>8 || (cell&(Board.REVEALED|Board.FLAGGED))==(Board.REVEALED|Board.FLAGGED))
+				throw new IOException("Field "+(i-HEADER_SIZE)+" of saved game is not correct: "+file);
+			if((cell&Board.BOMB)!=0) {
+				bombFields++;
+				if((cell&Board.REVEALED)!=0)
+					revealedBombs++;
+			}
+			if((cell&Board.REVEALED)!=0)
+				revealed++;
+			if((cell&Board.FLAGGED)!=0)
+				flags++;
+		}
+		if(firstClick==1 ? bombFields!=0 || revealed!=0 || state!=GameEngine.RUNNING : bombFields!=Math.min(bombs, size-1))
+			throw new IOException("Saved game has "+bombFields+" bombs, but "+bombs+" in header: "+file);
+		if(revealed!=revealedCounter || bombCounter!=bombs-flags)
+			throw new IOException("Counters of saved game don't match it's fields: "+file);
+		boolean won=revealed==size-bombs && bombCounter==0;
+		if(revealedBombs>1 || (state==GameEngine.LOST)!=(revealedBombs==1) || state==GameEngine.RUNNING && won || state==GameEngine.WON && revealed!=size-bombs)
+			throw new IOException("State of saved game doesn't match it's fields: "+file);
+	}
+
+	/**
+	 * @return CRC32 of header before checksum and of all fields
+	 */
+	private static int checksum(ByteBuffer buffer) {
+		CRC32 crc=new CRC32();
+		ByteBuffer part=buffer.duplicate();
+		part.position(0).limit(CHECKSUM);
+		crc.update(part);
+		part.limit(buffer.capacity()).position(HEADER_SIZE);
+		crc.update(part);
+		return (int)crc.getValue();
+	}
+}
@@ -0,0 +1,14 @@
+package minesweeper;
+
+/**
+ * This interface is implemented by classes which want to be notified about changes in the game.
+ * @author Tomek
+ *
+ */
+public interface GameListener {
+	/**
+	 * This function is called once after every move with all kinds of changes the move has made.
+	 * @param events - bits of {@link GameEvent}s which happened, check them with {@link GameEvent#in(int)}
+	 */
+	void gameChanged(int events);
+}
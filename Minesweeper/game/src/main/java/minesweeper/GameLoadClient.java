@@ -0,0 +1,186 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * This is load generator for {@link GameServer}. It opens many sessions over loopback and plays expert games on all of them at once from one selector loop.
+ * Every session waits for response before it sends next move, and time between sending a move and receiving whole response is recorded.
+ * At the end it prints throughput and percentiles of move latency.
+ * <p>
+ * Usage: java GameLoadClient [-port N] [-sessions N] [-moves N] [-seed N] - every session makes given number of moves, starting new game when one ends.
+ * @author Tomek
+ *
+ */
+public class GameLoadClient {
+	private final Random random;
+	private final long[] latencies;
+	private int latencyCount;
+	private int errors;
+
+	GameLoadClient(int moves, long seed) {
+		this.latencies=new long[moves];
+		this.random=new Random(seed);
+	}
+
+	/**
+	 * One client session with it's view of the board.
+	 */
+	class Session {
+		final SocketChannel channel;
+		final ByteBuffer in=ByteBuffer.allocate(1<<14);
+		final ByteBuffer out=ByteBuffer.allocate(GameProtocol.NEW_GAME_SIZE);
+		final Difficulty mode=Difficulty.EXPERT;
+		final byte[] looks=new byte[this.mode.getWidth()*this.mode.getHeight()];
+		int movesLeft;
+		long sentNanos;
+		boolean move;
+
+		Session(SocketChannel channel, int moves) {
+			this.channel=channel;
+			this.movesLeft=moves;
+		}
+
+		void newGame() {
+			Arrays.fill(this.looks, GameProtocol.HIDDEN);
+			this.out.clear();
+			this.out.put(GameProtocol.NEW_GAME).putInt(this.mode.getWidth()).putInt(this.mode.getHeight()).putInt(this.mode.getBombs()).putLong(GameLoadClient.this.random.nextLong());
+			this.send(false);
+		}
+
+		/**
+		 * Reveals random hidden field, or flags it once in ten moves.
+		 */
+		void nextMove() {
+			int field=GameLoadClient.this.random.nextInt(this.looks.length);
+			for(int i=0; i<this.looks.length && this.looks[field]!=GameProtocol.HIDDEN; ++i)
+				field=(field+1)%this.looks.length;
+			this.out.clear();
+			this.out.put(GameLoadClient.this.random.nextInt(10)==0 ? GameProtocol.FLAG : GameProtocol.REVEAL);
+			this.out.putInt(field%this.mode.getWidth()).putInt(field/this.mode.getWidth());
+			this.send(true);
+		}
+
+		private void send(boolean move) {
+			this.out.flip();
+			this.move=move;
+			this.sentNanos=System.nanoTime();
+		}
+
+		/**
+		 * Takes whole response from input buffer if it's there.
+		 * @return state of the game from response, -1 if response is not complete yet
+		 */
+		int receive() {
+			this.in.flip();
+			try {
+				if(this.in.remaining()<2)
+					return -1;
+				if(this.in.get(0)==GameProtocol.ERROR) {
+					this.in.position(2);
+					GameLoadClient.this.errors++;
+					return GameEngine.LOST;
+				}
+				if(this.in.remaining()<GameProtocol.DELTA_HEADER_SIZE)
+					return -1;
+				int count=this.in.getInt(10);
+				int size=GameProtocol.DELTA_HEADER_SIZE+(count<0 ? this.looks.length : 5*count);
+				if(this.in.remaining()<size)
+					return -1;
+				int state=this.in.get(1);
+				this.in.position(GameProtocol.DELTA_HEADER_SIZE);
+				if(count<0)
+					this.in.get(this.looks);
+				else
+					for(int k=0; k<count; ++k)
+						this.looks[this.in.getInt()]=this.in.get();
+				return state;
+			}finally {
+				this.in.compact();
+			}
+		}
+	}
+
+	/**
+	 * Connects sessions and plays until every session made it's moves.
+	 */
+	void run(InetSocketAddress address, int sessions, int moves) throws IOException {
+		Selector selector=Selector.open();
+		for(int i=0; i<sessions; ++i) {
+			SocketChannel channel=SocketChannel.open(address);
+			channel.socket().setTcpNoDelay(true);
+			channel.configureBlocking(false);
+			Session session=new Session(channel, moves);
+			channel.register(selector, SelectionKey.OP_WRITE, session);
+			session.newGame();
+		}
+		int open=sessions;
+		while(open>0) {
+			selector.select();
+			Iterator<SelectionKey> keys=selector.selectedKeys().iterator();
+			while(keys.hasNext()) {
+				SelectionKey key=keys.next();
+				keys.remove();
+				Session session=(Session)key.attachment();
+				if(key.isWritable()) {
+					session.channel.write(session.out);
+					if(!session.out.hasRemaining())
+						key.interestOps(SelectionKey.OP_READ);
+					continue;
+				}
+				if(session.channel.read(session.in)<0)
+					throw new IOException("Server closed connection");
+				int state=session.receive();
+				if(state<0)
+					continue;
+				if(session.move) {
+					this.latencies[this.latencyCount++]=System.nanoTime()-session.sentNanos;
+					session.movesLeft--;
+				}
+				if(session.movesLeft==0) {
+					key.cancel();
+					session.channel.close();
+					open--;
+					continue;
+				}
+				if(state==GameEngine.RUNNING)
+					session.nextMove();
+				else
+					session.newGame();
+				key.interestOps(SelectionKey.OP_WRITE);
+			}
+		}
+		selector.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port=GameServer.DEFAULT_PORT, sessions=1000, moves=100;
+		long seed=System.nanoTime();
+		for(int i=0; i<args.length; ++i) {
+			if(args[i].equals("-port"))
+				port=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-sessions"))
+				sessions=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-moves"))
+				moves=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-seed"))
+				seed=Long.parseLong(args[++i]);
+		}
+		GameLoadClient client=new GameLoadClient(sessions*moves, seed);
+		long start=System.nanoTime();
+		client.run(new InetSocketAddress("127.0.0.1", port), sessions, moves);
+		double seconds=(System.nanoTime()-start)/1e9;
+		long[] latencies=Arrays.copyOf(client.latencies, client.latencyCount);
+		Arrays.sort(latencies);
+		System.out.printf("sessions=%d moves=%d errors=%d in %.2f s: %.0f moves/s, latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+				sessions, latencies.length, client.errors, seconds, latencies.length/seconds,
+				latencies[latencies.length/2]/1e3, latencies[(int)(latencies.length*0.99)]/1e3, latencies[latencies.length-1]/1e3);
+	}
+}
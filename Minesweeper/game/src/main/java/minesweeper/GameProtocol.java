@@ -0,0 +1,99 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This is binary protocol spoken by {@link GameServer}. All numbers are big-endian.
+ * <p>
+ * Requests sent by client:
+ * <ul>
+ * <li>{@link #NEW_GAME} - width, height, bombs (ints) and seed (long); starts new game of the session</li>
+ * <li>{@link #REVEAL} and {@link #FLAG} - x and y (ints) of field</li>
+ * </ul>
+ * Every request gets one response:
+ * <ul>
+ * <li>{@link #DELTA} - game state (byte, see {@link GameEngine#getState()}), bomb counter, revealed counter and number of changed fields (ints), followed by index (int) and look (byte) of every changed field.
+ * Number -1 means that too many fields changed and looks of all fields follow instead, one byte each.</li>
+ * <li>{@link #ERROR} - error code (byte); after {@link #BAD_REQUEST} server closes connection, because it can't find start of the next request.
+ * {@link #BUSY} answers {@link #NEW_GAME} when boards of all sessions would take more memory than server allows, the session keeps it's game then.</li>
+ * </ul>
+ * Look of field is number of neighbouring bombs for revealed field, or {@link #FLAGGED}, {@link #BOMB} or {@link #HIDDEN}.
+ * @author Tomek
+ *
+ */
+public final class GameProtocol {
+	public static final byte NEW_GAME=1, REVEAL=2, FLAG=3;
+	public static final byte DELTA=(byte)0x81, ERROR=(byte)0xFF;
+	/** Error codes. */
+	public static final byte NO_GAME=1, BAD_REQUEST=2, BAD_FIELD=3, BAD_MODE=4, BUSY=5;
+	/** Looks of fields which are not numbers. */
+	public static final byte FLAGGED=9, BOMB=10, HIDDEN=11;
+	/** Sizes of requests, including type byte. */
+	public static final int NEW_GAME_SIZE=21, MOVE_SIZE=9;
+	/** Size of delta response before fields, including type byte. */
+	public static final int DELTA_HEADER_SIZE=14;
+	/** Largest board server agrees to create. */
+	public static final int MAX_FIELDS=1<<24;
+
+	private GameProtocol() {
+	}
+
+	/**
+	 * @return size of request of given type or -1 if type is unknown
+	 */
+	static int requestSize(byte type) {
+		switch(type) {
+		case NEW_GAME:
+			return NEW_GAME_SIZE;
+		case REVEAL:
+		case FLAG:
+			return MOVE_SIZE;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * @return look of field as it's sent to client
+	 */
+	static byte look(Board board, int x, int y) {
+		if(board.getRevealed(x, y))
+			return board.getBomb(x, y) ? BOMB : (byte)board.getNeighbours(x, y);
+		return board.getFlag(x, y) ? FLAGGED : HIDDEN;
+	}
+
+	/**
+	 * @return size of delta response with fields changed since board's changes were last cleared
+	 */
+	static int deltaSize(Board board) {
+		if(board.isAllChanged())
+			return DELTA_HEADER_SIZE+board.size();
+		return DELTA_HEADER_SIZE+5*board.getChangedCount();
+	}
+
+	/**
+	 * Writes delta response with fields changed since board's changes were last cleared, and clears them.
+	 * @param engine - engine of the session
+	 * @param out - buffer with at least {@link #deltaSize(Board)} bytes remaining
+	 */
+	static void putDelta(GameEngine engine, ByteBuffer out) {
+		Board board=engine.getBoard();
+		out.put(DELTA);
+		out.put((byte)engine.getState());
+		out.putInt(engine.getBombCounter());
+		out.putInt(engine.getRevealedCounter());
+		if(board.isAllChanged()) {
+			out.putInt(-1);
+			for(int i=0; i<board.size(); ++i)
+				out.put(look(board, i%board.getWidth(), i/board.getWidth()));
+		}else {
+			out.putInt(board.getChangedCount());
+			for(int k=0; k<board.getChangedCount(); ++k) {
+				int i=board.getChanged(k);
+				out.putInt(i);
+				out.put(look(board, i%board.getWidth(), i/board.getWidth()));
+			}
+		}
+		board.clearChanges();
+	}
+}
@@ -0,0 +1,370 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is server which hosts many games at once for bots and remote clients. Every connection is one session with it's own {@link GameEngine}, without any user interface.
+ * Sessions speak {@link GameProtocol}: client sends requests and gets one response for every request, with fields changed by the move.
+ * <p>
+ * Connections are accepted by one thread and spread evenly over worker threads. Every worker runs non-blocking selector loop over it's sessions, so one thread serves thousands of sessions and number of threads doesn't grow with them.
+ * Session doesn't read new requests while it has responses which client didn't take, and stops handling requests already read when responses waiting for client reach {@link #OUTPUT_LIMIT}, so client which doesn't read can't make server hold unbounded output.
+ * Session which fails in unexpected way is closed alone, other sessions of the worker go on.
+ * Boards of all sessions together may have at most given number of fields, so few clients asking for big boards can't use up the heap. New game which doesn't fit is refused with {@link GameProtocol#BUSY}.
+ * <p>
+ * Usage: java GameServer [-port N] [-threads N] [-fields N] - listens on loopback address.
+ * @author Tomek
+ *
+ */
+public class GameServer {
+	/** Port used when none is given. */
+	public static final int DEFAULT_PORT=7357;
+	/** Bytes of responses waiting for client above which session handles no more requests until they are sent. One response can still go above it. */
+	static final int OUTPUT_LIMIT=1<<16;
+	/** Size of output buffer of new session, buffer grown above {@link #OUTPUT_LIMIT} shrinks back to it when it's empty. */
+	static final int OUTPUT_SIZE=64;
+	/** Bytes of heap one field of session's board can take: the field itself, it's entry in list of bombs, it's look in response with all fields and it's cell in grid used to count neighbours. */
+	static final int BYTES_PER_FIELD=8;
+	/** Fields of boards of all sessions used when no limit is given, as many as fit in half of the heap. It can be set by minesweeper.server.fields property. */
+	public static final long DEFAULT_FIELDS=Long.getLong("minesweeper.server.fields", Runtime.getRuntime().maxMemory()/2/BYTES_PER_FIELD);
+
+	private final ServerSocketChannel server;
+	private final Worker[] workers;
+	final LongAdder moves=new LongAdder();
+	final LongAdder sessions=new LongAdder();
+	private final long maxFields;
+	/** Fields of boards held by all sessions, boards kept by their engines for reuse included. */
+	private final AtomicLong fields=new AtomicLong();
+
+	/**
+	 * Opens server socket and starts worker threads, with {@link #DEFAULT_FIELDS} fields for boards of all sessions. Connections are accepted after {@link #run()} is called.
+	 * @param address - address to listen on
+	 * @param threads - number of worker threads
+	 * @throws IOException if socket can't be opened
+	 */
+	public GameServer(InetSocketAddress address, int threads) throws IOException {
+		this(address, threads, DEFAULT_FIELDS);
+	}
+
+	/**
+	 * Opens server socket and starts worker threads. Connections are accepted after {@link #run()} is called.
+	 * @param address - address to listen on
+	 * @param threads - number of worker threads
+	 * @param maxFields - most fields of boards of all sessions together
+	 * @throws IOException if socket can't be opened
+	 */
+	public GameServer(InetSocketAddress address, int threads, long maxFields) throws IOException {
+		this.maxFields=maxFields;
+		this.server=ServerSocketChannel.open();
+		this.server.bind(address, 1024);
+		this.workers=new Worker[threads];
+		for(int i=0; i<threads; ++i) {
+			this.workers[i]=new Worker();
+			Thread thread=new Thread(this.workers[i], "game-server-"+(i+1));
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * @return port on which server listens
+	 */
+	public int getPort() {
+		return this.server.socket().getLocalPort();
+	}
+
+	/**
+	 * Accepts connections on calling thread until server is closed, handing them to workers in turn.
+	 */
+	public void run() {
+		for(int next=0; this.server.isOpen(); next=(next+1)%this.workers.length) {
+			try {
+				SocketChannel channel=this.server.accept();
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				this.workers[next].add(channel);
+			}catch(IOException e) {
+				if(this.server.isOpen())
+					System.err.println("Can't accept connection: "+e);
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting connections.
+	 */
+	public void close() throws IOException {
+		this.server.close();
+	}
+
+	/**
+	 * Changes number of fields held by sessions, unless it would go above limit of the server.
+	 * @param change - number of fields taken, or given back if negative
+	 * @return true if fields were taken
+	 */
+	boolean takeFields(long change) {
+		while(true) {
+			long fields=this.fields.get();
+			if(change>0 && fields+change>this.maxFields)
+				return false;
+			if(this.fields.compareAndSet(fields, fields+change))
+				return true;
+		}
+	}
+
+	/**
+	 * @return number of fields of boards held by all sessions
+	 */
+	long getFields() {
+		return this.fields.get();
+	}
+
+	/**
+	 * One connection with it's game and buffers.
+	 */
+	class Session {
+		final GameEngine engine=new GameEngine(1, 2, 0, new Random());
+		final Random random=new Random();
+		final ByteBuffer in=ByteBuffer.allocate(GameProtocol.NEW_GAME_SIZE*4);
+		ByteBuffer out=ByteBuffer.allocate(OUTPUT_SIZE);
+		boolean started, closing;
+		/** Fields of boards of the session counted in fields held by server. */
+		long fields;
+
+		Session() {
+			this.engine.setRandom(this.random);
+		}
+
+		/**
+		 * Makes sure that output buffer has room for given number of bytes.
+		 */
+		void reserve(int bytes) {
+			if(this.out.remaining()>=bytes)
+				return;
+			ByteBuffer out=ByteBuffer.allocate(Math.max(this.out.capacity()*2, this.out.position()+bytes));
+			this.out.flip();
+			out.put(this.out);
+			this.out=out;
+		}
+
+		/**
+		 * Handles complete requests in input buffer and puts responses to output buffer, until responses reach {@link GameServer#OUTPUT_LIMIT}.
+		 * @return number of handled moves
+		 */
+		int handleRequests() {
+			this.in.flip();
+			int moves=0;
+			while(this.in.hasRemaining() && !this.closing && this.out.position()<OUTPUT_LIMIT) {
+				byte type=this.in.get(this.in.position());
+				int size=GameProtocol.requestSize(type);
+				if(size<0) {
+					this.error(GameProtocol.BAD_REQUEST);
+					this.closing=true;
+					break;
+				}
+				if(this.in.remaining()<size)
+					break;
+				this.in.get();
+				if(type==GameProtocol.NEW_GAME)
+					this.newGame(this.in.getInt(), this.in.getInt(), this.in.getInt(), this.in.getLong());
+				else {
+					this.move(type, this.in.getInt(), this.in.getInt());
+					moves++;
+				}
+			}
+			this.in.compact();
+			return moves;
+		}
+
+		/**
+		 * @return true if input buffer holds complete request which wasn't handled yet, or bad request
+		 */
+		boolean hasRequest() {
+			if(this.closing || this.in.position()==0)
+				return false;
+			int size=GameProtocol.requestSize(this.in.get(0));
+			return size<0 || this.in.position()>=size;
+		}
+
+		/**
+		 * Writes as much of output buffer as channel takes. Emptied buffer which grew above {@link GameServer#OUTPUT_LIMIT} is replaced by small one.
+		 * @return true if whole output was written
+		 */
+		boolean flush(SocketChannel channel) throws IOException {
+			if(this.out.position()>0) {
+				this.out.flip();
+				channel.write(this.out);
+				this.out.compact();
+			}
+			if(this.out.position()>0)
+				return false;
+			if(this.out.capacity()>OUTPUT_LIMIT)
+				this.out=ByteBuffer.allocate(OUTPUT_SIZE);
+			return true;
+		}
+
+		private void newGame(int width, int height, int bombs, long seed) {
+			if(width<1 || height<1 || (long)width*height>GameProtocol.MAX_FIELDS || width*height<2 || bombs<0 || bombs>=width*height) {
+				this.error(GameProtocol.BAD_MODE);
+				return;
+			}
+			//previous board is kept for reuse if it has other size, so engine can hold both
+			Board board=this.engine.getBoard();
+			long fields=(long)width*height+this.engine.getPooledFields()+(board.size()!=width*height && board.size()<=BoardPool.MAX_FIELDS ? board.size() : 0);
+			if(!GameServer.this.takeFields(fields-this.fields)) {
+				this.error(GameProtocol.BUSY);
+				return;
+			}
+			this.engine.changeMode(width, height, bombs);
+			long held=this.engine.getBoard().size()+this.engine.getPooledFields();
+			GameServer.this.takeFields(held-fields);
+			this.fields=held;
+			this.random.setSeed(seed);
+			this.engine.getBoard().clearChanges();
+			this.started=true;
+			this.delta();
+		}
+
+		private void move(byte type, int x, int y) {
+			if(!this.started) {
+				this.error(GameProtocol.NO_GAME);
+				return;
+			}
+			if(x<0 || y<0 || x>=this.engine.getWidth() || y>=this.engine.getHeight()) {
+				this.error(GameProtocol.BAD_FIELD);
+				return;
+			}
+			if(type==GameProtocol.REVEAL)
+				this.engine.revealTile(x, y);
+			else
+				this.engine.changeState(x, y);
+			this.delta();
+		}
+
+		private void delta() {
+			this.reserve(GameProtocol.deltaSize(this.engine.getBoard()));
+			GameProtocol.putDelta(this.engine, this.out);
+		}
+
+		private void error(byte code) {
+			this.reserve(2);
+			this.out.put(GameProtocol.ERROR);
+			this.out.put(code);
+		}
+	}
+
+	/**
+	 * Selector loop which serves sessions given to it.
+	 */
+	class Worker implements Runnable {
+		private final Selector selector;
+		private final Queue<SocketChannel> added=new ConcurrentLinkedQueue<SocketChannel>();
+
+		Worker() throws IOException {
+			this.selector=Selector.open();
+		}
+
+		void add(SocketChannel channel) {
+			this.added.add(channel);
+			this.selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			while(true) {
+				try {
+					this.selector.select();
+					for(SocketChannel channel; (channel=this.added.poll())!=null; ) {
+						try {
+							channel.register(this.selector, SelectionKey.OP_READ, new Session());
+							GameServer.this.sessions.increment();
+						}catch(IOException e) {
+							channel.close(); //closed before it was registered
+						}
+					}
+					Iterator<SelectionKey> keys=this.selector.selectedKeys().iterator();
+					while(keys.hasNext()) {
+						SelectionKey key=keys.next();
+						keys.remove();
+						try {
+							this.serve(key);
+						}catch(IOException e) {
+							this.close(key);
+						}catch(RuntimeException e) {
+							System.err.println("Game server session failed: "+e);
+							this.close(key);
+						}
+					}
+				}catch(IOException e) {
+					System.err.println("Game server worker failed: "+e);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads requests, handles them and writes responses. While responses can't be written whole, session waits only for writing and reads nothing,
+		 * and when they are written requests which were left unhandled in input buffer are handled.
+		 */
+		private void serve(SelectionKey key) throws IOException {
+			SocketChannel channel=(SocketChannel)key.channel();
+			Session session=(Session)key.attachment();
+			if(key.isReadable() && channel.read(session.in)<0) {
+				this.close(key);
+				return;
+			}
+			boolean flushed;
+			do {
+				GameServer.this.moves.add(session.handleRequests());
+				flushed=session.flush(channel);
+			}while(flushed && session.hasRequest());
+			if(!flushed)
+				key.interestOps(SelectionKey.OP_WRITE);
+			else if(session.closing)
+				this.close(key);
+			else
+				key.interestOps(SelectionKey.OP_READ);
+		}
+
+		private void close(SelectionKey key) {
+			if(!key.isValid())
+				return;
+			key.cancel();
+			try {
+				key.channel().close();
+			}catch(IOException e) {
+				//connection is gone anyway
+			}
+			GameServer.this.takeFields(-((Session)key.attachment()).fields);
+			GameServer.this.sessions.decrement();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port=DEFAULT_PORT;
+		int threads=Runtime.getRuntime().availableProcessors();
+		long fields=DEFAULT_FIELDS;
+		for(int i=0; i<args.length; ++i) {
+			if(args[i].equals("-port"))
+				port=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-threads"))
+				threads=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-fields"))
+				fields=Long.parseLong(args[++i]);
+		}
+		GameServer server=new GameServer(new InetSocketAddress("127.0.0.1", port), threads, fields);
+		System.out.println("Game server listening on port "+server.getPort()+" with "+threads+" threads");
+		server.run();
+	}
+}
@@ -0,0 +1,139 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is histogram of non-negative long values (like durations in nanoseconds) with fixed relative precision, in the same way as HdrHistogram.
+ * Values below 64 have their own buckets and every higher power of two is split into 32 buckets, so bucket of any value is at most about 3% wide and whole range of long fits into less than 2000 buckets.
+ * Recording is one increment of bucket counter and can be done from many threads at once without locks.
+ * @author Tomek
+ *
+ */
+public class Histogram {
+	/** Unit of histograms of durations, they are printed in microseconds. */
+	public static final String NANOS="ns";
+	/** Every power of two above 2*SUB_BUCKETS is split into this many buckets. */
+	static final int SUB_BITS=5;
+	static final int SUB_BUCKETS=1<<SUB_BITS;
+	static final int BUCKETS=(64-SUB_BITS)*SUB_BUCKETS;
+
+	private final String name;
+	private final String unit;
+	private final AtomicLongArray counts=new AtomicLongArray(BUCKETS);
+	private final LongAdder count=new LongAdder();
+	private final LongAdder sum=new LongAdder();
+	private final LongAccumulator max=new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param name - name under which histogram is shown
+	 * @param unit - unit of recorded values, {@link #NANOS} for durations
+	 */
+	public Histogram(String name, String unit) {
+		this.name=name;
+		this.unit=unit;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String getUnit() {
+		return this.unit;
+	}
+
+	/**
+	 * Adds one value to the histogram. Negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		value=Math.max(value, 0);
+		this.counts.incrementAndGet(bucket(value));
+		this.count.increment();
+		this.sum.add(value);
+		this.max.accumulate(value);
+	}
+
+	/**
+	 * Records time which passed since given moment.
+	 * @param startNanos - value of {@link System#nanoTime()} at the start
+	 */
+	public void recordSince(long startNanos) {
+		this.record(System.nanoTime()-startNanos);
+	}
+
+	/**
+	 * @return index of bucket of value
+	 */
+	static int bucket(long value) {
+		if(value<2*SUB_BUCKETS)
+			return (int)value;
+		int shift=63-Long.numberOfLeadingZeros(value)-SUB_BITS;
+		return (shift+1)*SUB_BUCKETS+(int)(value>>>shift)-SUB_BUCKETS;
+	}
+
+	/**
+	 * @return the highest value which falls into bucket
+	 */
+	static long highestValue(int bucket) {
+		if(bucket<2*SUB_BUCKETS)
+			return bucket;
+		int shift=bucket/SUB_BUCKETS-1;
+		return ((long)(bucket%SUB_BUCKETS+SUB_BUCKETS+1)<<shift)-1;
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getMax() {
+		return this.max.get();
+	}
+
+	public double getMean() {
+		long count=this.count.sum();
+		return count==0 ? 0 : (double)this.sum.sum()/count;
+	}
+
+	/**
+	 * @param percentile - from 0 to 100
+	 * @return value below or equal to which given percent of recorded values are, with precision of one bucket
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts=new long[BUCKETS];
+		long total=0;
+		for(int b=0; b<BUCKETS; ++b)
+			total+=counts[b]=this.counts.get(b);
+		long wanted=Math.max((long)Math.ceil(percentile/100*total), 1);
+		long seen=0;
+		for(int b=0; b<BUCKETS; ++b) {
+			seen+=counts[b];
+			if(seen>=wanted)
+				return Math.min(highestValue(b), this.getMax());
+		}
+		return 0;
+	}
+
+	/**
+	 * Forgets all recorded values.
+	 */
+	public void reset() {
+		for(int b=0; b<BUCKETS; ++b)
+			this.counts.set(b, 0);
+		this.count.reset();
+		this.sum.reset();
+		this.max.reset();
+	}
+
+	/**
+	 * @return one line with name, count, mean, median, 90th, 99th and 99.9th percentile and maximum, durations in microseconds
+	 */
+	@Override
+	public String toString() {
+		boolean nanos=NANOS.equals(this.unit);
+		double scale=nanos ? 1e-3 : 1;
+		return String.format("%-26s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f %s",
+				this.name, this.getCount(), this.getMean()*scale, this.getPercentile(50)*scale, this.getPercentile(90)*scale,
+				this.getPercentile(99)*scale, this.getPercentile(99.9)*scale, this.getMax()*scale, nanos ? "us" : this.unit);
+	}
+}
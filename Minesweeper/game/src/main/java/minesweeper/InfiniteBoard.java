@@ -0,0 +1,280 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is board without edges for infinite game mode. It is split into square chunks (see {@link Chunk}) which are created only when one of their fields is first read or changed.
+ * Whether field has a bomb depends only on world seed and field's position, so every chunk can be generated on it's own, together with neighbour counts on it's border.
+ * <p>
+ * Only given number of chunks is kept in memory. The least recently used chunk is removed when another one is needed: chunk which wasn't changed is simply dropped, changed one is written to a file in spill directory and read back when it's needed again.
+ * So memory used by the board is bounded no matter how far player goes, and only fields changed by the player take space on disk.
+ * Every board writes chunks to it's own new subdirectory of spill directory, named after it's seed, so boards sharing spill directory never read each other's chunks. It is deleted by {@link #close()}.
+ * <p>
+ * Fields around (0, 0) never have bombs, so revealing (0, 0) is a safe start. Fields are addressed by any int coordinates.
+ * <p>
+ * It is the board of infinite mode of {@link Model}, shown through movable view of {@link BoardPanel}. Like the rest of the model it's used by one thread only.
+ * @author Tomek
+ *
+ */
+public class InfiniteBoard implements Closeable {
+	/** Lowest density of bombs. With fewer bombs areas of empty fields could grow without end and revealing one of them would never finish. */
+	public static final double MIN_DENSITY=0.15;
+
+	private final long seed;
+	private final long threshold;
+	private final int maxChunks;
+	private final Path spillDirectory;
+	/** Subdirectory of spill directory with chunks of this board, null until the first chunk is written. */
+	private Path boardDirectory;
+	private final LinkedHashMap<Long, Chunk> chunks;
+	private Chunk lastChunk;
+	private int state=GameEngine.RUNNING;
+	private long revealedCounter;
+	private long spilledChunks;
+	private long[] stack=new long[64];
+	private int stackSize;
+
+	/**
+	 * @param seed - world seed, the same seed gives the same bombs
+	 * @param density - chance that field has a bomb, from {@link #MIN_DENSITY} to 1
+	 * @param maxChunks - most chunks kept in memory, at least 1
+	 * @param spillDirectory - directory in which board creates subdirectory for changed chunks removed from memory
+	 */
+	public InfiniteBoard(long seed, double density, int maxChunks, Path spillDirectory) {
+		if(density<MIN_DENSITY || density>1)
+			throw new IllegalArgumentException("Density must be between "+MIN_DENSITY+" and 1: "+density);
+		if(maxChunks<1)
+			throw new IllegalArgumentException("At least one chunk must fit in memory: "+maxChunks);
+		this.seed=seed;
+		this.threshold=(long)(density*(1L<<53));
+		this.maxChunks=maxChunks;
+		this.spillDirectory=spillDirectory;
+		this.chunks=new LinkedHashMap<Long, Chunk>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+				if(this.size()<=InfiniteBoard.this.maxChunks)
+					return false;
+				InfiniteBoard.this.evict(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Decides from world seed alone if field has a bomb. It doesn't need any chunk.
+	 * @return true if field (x, y) has a bomb
+	 */
+	boolean isBomb(int x, int y) {
+		if(Math.abs((long)x)<=1 && Math.abs((long)y)<=1)
+			return false;
+		long hash=this.seed+x*0x9E3779B97F4A7C15L+y*0xC2B2AE3D27D4EB4FL;
+		hash=(hash^(hash>>>30))*0xBF58476D1CE4E5B9L;
+		hash=(hash^(hash>>>27))*0x94D049BB133111EBL;
+		hash^=hash>>>31;
+		return hash>>>11<this.threshold;
+	}
+
+	/**
+	 * @return true if field (x, y) is revealed and has a bomb, which only happens when game is lost
+	 */
+	public boolean getBomb(int x, int y) {
+		return (this.cell(x, y)&Board.BOMB)!=0 && this.getRevealed(x, y);
+	}
+
+	public boolean getRevealed(int x, int y) {
+		return (this.cell(x, y)&Board.REVEALED)!=0;
+	}
+
+	public boolean getFlag(int x, int y) {
+		return (this.cell(x, y)&Board.FLAGGED)!=0;
+	}
+
+	/**
+	 * @return number of bombs around field (x, y), it should be shown only when field is revealed
+	 */
+	public int getNeighbours(int x, int y) {
+		return this.cell(x, y)&Board.NEIGHBOURS_MASK;
+	}
+
+	/**
+	 * This function reveals field. If field has a bomb game is lost, if it has no neighbouring bombs whole area of such fields is revealed together with numbered fields bordering it, across chunk borders.
+	 * Area is filled with explicit stack of positions and revealed flag tells which fields were already visited.
+	 * @param x - x position of field
+	 * @param y - y position of field
+	 * @return number of fields revealed by the move, 0 if nothing happened
+	 */
+	public int reveal(int x, int y) {
+		if(this.state==GameEngine.LOST || this.getRevealed(x, y))
+			return 0;
+		if((this.cell(x, y)&Board.BOMB)!=0) {
+			this.setBits(x, y, Board.REVEALED);
+			this.revealedCounter++;
+			this.state=GameEngine.LOST;
+			return 1;
+		}
+		int revealed=0;
+		this.stackSize=0;
+		this.push(x, y);
+		while(this.stackSize>0) {
+			long position=this.stack[--this.stackSize];
+			int px=(int)(position>>32), py=(int)position;
+			int cell=this.cell(px, py);
+			if((cell&(Board.REVEALED|Board.BOMB))!=0)
+				continue;
+			this.setBits(px, py, Board.REVEALED);
+			revealed++;
+			if((cell&Board.NEIGHBOURS_MASK)!=0)
+				continue;
+			for(int ny=py-1; ny<=py+1; ++ny)
+				for(int nx=px-1; nx<=px+1; ++nx)
+					if((this.cell(nx, ny)&Board.REVEALED)==0)
+						this.push(nx, ny);
+		}
+		this.revealedCounter+=revealed;
+		return revealed;
+	}
+
+	/**
+	 * This function flags hidden field or removes it's flag.
+	 * @return 1 if flag was added, -1 if it was removed and 0 if field can't be flagged
+	 */
+	public int changeState(int x, int y) {
+		int cell=this.cell(x, y);
+		if(this.state==GameEngine.LOST || (cell&Board.REVEALED)!=0)
+			return 0;
+		if((cell&Board.FLAGGED)!=0) {
+			this.clearBits(x, y, Board.FLAGGED);
+			return -1;
+		}
+		this.setBits(x, y, Board.FLAGGED);
+		return 1;
+	}
+
+	/**
+	 * @return {@link GameEngine#RUNNING} or {@link GameEngine#LOST}, infinite game can't be won
+	 */
+	public int getState() {
+		return this.state;
+	}
+
+	public long getRevealedCounter() {
+		return this.revealedCounter;
+	}
+
+	/**
+	 * @return number of chunks kept in memory
+	 */
+	public int getLoadedChunks() {
+		return this.chunks.size();
+	}
+
+	/**
+	 * @return number of times a changed chunk was written to spill directory
+	 */
+	public long getSpilledChunks() {
+		return this.spilledChunks;
+	}
+
+	private int cell(int x, int y) {
+		return this.chunk(x, y).cells[Chunk.index(x, y)];
+	}
+
+	private void setBits(int x, int y, int bits) {
+		Chunk chunk=this.chunk(x, y);
+		chunk.cells[Chunk.index(x, y)]|=bits;
+		chunk.dirty=true;
+	}
+
+	private void clearBits(int x, int y, int bits) {
+		Chunk chunk=this.chunk(x, y);
+		chunk.cells[Chunk.index(x, y)]&=~bits;
+		chunk.dirty=true;
+	}
+
+	/**
+	 * Finds chunk which contains field (x, y), reading it from spill directory or generating it if it's not in memory.
+	 * The last used chunk is checked first, because neighbouring fields are usually in the same chunk.
+	 */
+	private Chunk chunk(int x, int y) {
+		long key=Chunk.key(x, y);
+		if(this.lastChunk!=null && this.lastChunk.key==key)
+			return this.lastChunk;
+		Chunk chunk=this.chunks.get(key);
+		if(chunk==null) {
+			chunk=this.load(key);
+			this.chunks.put(key, chunk);
+		}
+		return this.lastChunk=chunk;
+	}
+
+	private Chunk load(long key) {
+		if(this.boardDirectory==null)
+			return Chunk.generate(this, key);
+		Path file=this.spillFile(key);
+		if(!Files.exists(file))
+			return Chunk.generate(this, key);
+		try {
+			return new Chunk(key, Files.readAllBytes(file));
+		}catch(IOException e) {
+			throw new UncheckedIOException("Can't read chunk "+file, e);
+		}
+	}
+
+	/**
+	 * Writes chunk which is removed from memory to spill directory if it was changed since it was generated or read.
+	 */
+	private void evict(Chunk chunk) {
+		if(chunk==this.lastChunk)
+			this.lastChunk=null;
+		if(!chunk.dirty)
+			return;
+		try {
+			if(this.boardDirectory==null) {
+				Files.createDirectories(this.spillDirectory);
+				this.boardDirectory=Files.createTempDirectory(this.spillDirectory, "seed"+Long.toHexString(this.seed)+"-");
+			}
+			Files.write(this.spillFile(chunk.key), chunk.cells);
+		}catch(IOException e) {
+			throw new UncheckedIOException("Can't write chunk "+chunk.key+" to "+this.spillDirectory, e);
+		}
+		this.spilledChunks++;
+	}
+
+	/**
+	 * Deletes chunks written by this board together with their subdirectory. Board can't be used afterwards.
+	 * @throws IOException if files can't be deleted
+	 */
+	@Override
+	public void close() throws IOException {
+		this.chunks.clear();
+		this.lastChunk=null;
+		if(this.boardDirectory==null)
+			return;
+		try(DirectoryStream<Path> files=Files.newDirectoryStream(this.boardDirectory)) {
+			for(Path file : files)
+				Files.delete(file);
+		}
+		Files.delete(this.boardDirectory);
+		this.boardDirectory=null;
+	}
+
+	private Path spillFile(long key) {
+		return this.boardDirectory.resolve(Chunk.chunkX(key)+"_"+Chunk.chunkY(key)+".chunk");
+	}
+
+	private void push(int x, int y) {
+		if(this.stackSize==this.stack.length)
+			this.stack=Arrays.copyOf(this.stack, this.stackSize*2);
+		this.stack[this.stackSize++]=(long)x<<32|(y&0xFFFFFFFFL);
+	}
+}
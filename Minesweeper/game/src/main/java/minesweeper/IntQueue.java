@@ -0,0 +1,49 @@
+package minesweeper;
+
+/**
+ * This is first-in first-out queue of ints kept in one growing array, so adding and taking elements doesn't allocate objects.
+ * @author Tomek
+ *
+ */
+class IntQueue {
+	private int[] elements=new int[64];
+	private int head, tail;
+
+	void add(int element) {
+		if(this.tail==this.elements.length) {
+			if(this.head>this.elements.length/2) {
+				System.arraycopy(this.elements, this.head, this.elements, 0, this.tail-this.head);
+			}else {
+				int[] elements=new int[this.elements.length*2];
+				System.arraycopy(this.elements, this.head, elements, 0, this.tail-this.head);
+				this.elements=elements;
+			}
+			this.tail-=this.head;
+			this.head=0;
+		}
+		this.elements[this.tail++]=element;
+	}
+
+	/**
+	 * @return oldest element, queue must not be empty
+	 */
+	int poll() {
+		int element=this.elements[this.head++];
+		if(this.head==this.tail)
+			this.clear();
+		return element;
+	}
+
+	boolean isEmpty() {
+		return this.head==this.tail;
+	}
+
+	int size() {
+		return this.tail-this.head;
+	}
+
+	void clear() {
+		this.head=0;
+		this.tail=0;
+	}
+}
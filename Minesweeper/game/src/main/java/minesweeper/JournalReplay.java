@@ -0,0 +1,226 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is reader of games recorded by {@link MoveJournal}, which plays them again on {@link GameEngine}.
+ * Moves are made straight on the engine, so fast-forward doesn't notify anybody about single moves.
+ * <p>
+ * {@link Replayer} can seek to any move. While it plays it keeps copy of the board every {@link #CHECKPOINT_INTERVAL} moves, so seeking backwards starts from the nearest earlier checkpoint instead of from the first move.
+ * <p>
+ * Usage: java JournalReplay journal - replays all games of journal as fast as possible and prints how they ended.
+ * @author Tomek
+ *
+ */
+public class JournalReplay {
+	/** Number of moves between checkpoints. */
+	static final int CHECKPOINT_INTERVAL=256;
+
+	private JournalReplay() {
+	}
+
+	/**
+	 * One recorded game.
+	 */
+	public static class Game {
+		final int width, height, bombs;
+		final long seed;
+		/** Sorted indices of bombs or null if bombs are placed from seed. */
+		int[] layout;
+		/** Moves as index of field shifted left by one, with lowest bit set for flag. */
+		private int[] moves=new int[16];
+		/** Game time of every move in milliseconds. */
+		private long[] times=new long[16];
+		private int moveCount;
+
+		Game(int width, int height, int bombs, long seed) {
+			this.width=width;
+			this.height=height;
+			this.bombs=bombs;
+			this.seed=seed;
+		}
+
+		void addMove(int index, boolean flag, long millis) {
+			if(this.moveCount==this.moves.length) {
+				this.moves=Arrays.copyOf(this.moves, this.moveCount*2);
+				this.times=Arrays.copyOf(this.times, this.moveCount*2);
+			}
+			this.moves[this.moveCount]=index<<1|(flag ? 1 : 0);
+			this.times[this.moveCount++]=millis;
+		}
+
+		public int getMoveCount() {
+			return this.moveCount;
+		}
+
+		/**
+		 * @return game time of move k in milliseconds
+		 */
+		public long getTime(int k) {
+			return this.times[k];
+		}
+	}
+
+	/**
+	 * This function reads all games from journal file.
+	 * @param file - path of journal
+	 * @return games in order in which they were played
+	 * @throws IOException if file can't be read or is not a journal
+	 */
+	public static List<Game> read(Path file) throws IOException {
+		ByteBuffer buffer=ByteBuffer.wrap(Files.readAllBytes(file));
+		if(buffer.remaining()<8 || buffer.getInt()!=MoveJournal.MAGIC || buffer.getInt()!=MoveJournal.VERSION)
+			throw new IOException("File is not a journal of version "+MoveJournal.VERSION+": "+file);
+		List<Game> games=new ArrayList<Game>();
+		Game game=null;
+		long millis=0;
+		while(buffer.hasRemaining()) {
+			long first=getVarint(buffer);
+			int kind=(int)(first&3);
+			int value=(int)(first>>>2);
+			if(kind==MoveJournal.GAME) {
+				game=new Game(value, (int)getVarint(buffer), (int)getVarint(buffer), buffer.getLong());
+				games.add(game);
+				millis=0;
+			}else if(game==null) {
+				throw new IOException("Journal has moves before first game: "+file);
+			}else if(kind==MoveJournal.LAYOUT) {
+				game.layout=new int[value];
+				for(int k=0, field=0; k<value; ++k)
+					game.layout[k]=field+=(int)getVarint(buffer);
+			}else {
+				millis+=getVarint(buffer);
+				game.addMove(value, kind==MoveJournal.FLAG, millis);
+			}
+		}
+		return games;
+	}
+
+	private static long getVarint(ByteBuffer buffer) {
+		long value=0;
+		for(int shift=0; ; shift+=7) {
+			byte b=buffer.get();
+			value|=(long)(b&0x7F)<<shift;
+			if(b>=0)
+				return value;
+		}
+	}
+
+	/**
+	 * This is player of one recorded game on given engine.
+	 */
+	public static class Replayer {
+		private final Game game;
+		private final GameEngine engine;
+		private final List<byte[]> checkpoints=new ArrayList<byte[]>();
+		private final List<int[]> checkpointCounters=new ArrayList<int[]>();
+		private int position;
+
+		/**
+		 * Starts recorded game on the engine, before it's first move. Engine must not have no-guess generator nor board pregenerator and must keep only clicked field safe (see {@link FirstClickPolicy#SAFE_FIELD}), because bombs of games without recorded layout are placed again from seed.
+		 */
+		public Replayer(Game game, GameEngine engine) {
+			this.game=game;
+			this.engine=engine;
+			this.restart();
+		}
+
+		/**
+		 * Moves game to the state after given number of moves.
+		 * @param move - number of moves, from 0 to number of moves of the game
+		 */
+		public void seek(int move) {
+			if(move<0 || move>this.game.moveCount)
+				throw new IndexOutOfBoundsException("Move "+move+" of "+this.game.moveCount);
+			if(move<this.position) {
+				int checkpoint=Math.min(move/CHECKPOINT_INTERVAL, this.checkpoints.size());
+				if(checkpoint==0)
+					this.restart();
+				else
+					this.restore(checkpoint);
+			}
+			while(this.position<move) {
+				int code=this.game.moves[this.position];
+				int index=code>>>1;
+				if((code&1)!=0)
+					this.engine.changeState(index%this.game.width, index/this.game.width);
+				else {
+					if(this.engine.isFirstClick() && this.game.layout!=null)
+						this.engine.placeBombs(this.game.layout);
+					this.engine.revealTile(index%this.game.width, index/this.game.width);
+				}
+				if(++this.position%CHECKPOINT_INTERVAL==0 && this.position/CHECKPOINT_INTERVAL>this.checkpoints.size())
+					this.checkpoint();
+			}
+		}
+
+		/**
+		 * @return number of moves made
+		 */
+		public int getPosition() {
+			return this.position;
+		}
+
+		/**
+		 * @return game time of the last made move in milliseconds
+		 */
+		public long getElapsedMillis() {
+			return this.position==0 ? 0 : this.game.times[this.position-1];
+		}
+
+		private void restart() {
+			this.engine.changeMode(this.game.width, this.game.height, this.game.bombs);
+			this.engine.setRandom(new Random(this.game.seed));
+			this.position=0;
+		}
+
+		/**
+		 * Keeps copy of board and counters after current move.
+		 */
+		private void checkpoint() {
+			byte[] cells=new byte[this.engine.getBoard().size()];
+			this.engine.getBoard().write(ByteBuffer.wrap(cells));
+			this.checkpoints.add(cells);
+			this.checkpointCounters.add(new int[] {this.engine.getBombCounter(), this.engine.getRevealedCounter(), this.engine.getState(), this.engine.isFirstClick() ? 1 : 0});
+		}
+
+		/**
+		 * Goes back to checkpoint number k, counted from 1.
+		 */
+		private void restore(int k) {
+			int[] counters=this.checkpointCounters.get(k-1);
+			this.engine.restore(this.game.width, this.game.height, this.game.bombs, counters[0], counters[1], counters[2], counters[3]!=0, ByteBuffer.wrap(this.checkpoints.get(k-1)));
+			if(counters[3]!=0)
+				this.engine.setRandom(new Random(this.game.seed));
+			this.position=k*CHECKPOINT_INTERVAL;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if(args.length!=1) {
+			System.err.println("Usage: java JournalReplay journal");
+			return;
+		}
+		long start=System.nanoTime();
+		List<Game> games=read(Paths.get(args[0]));
+		GameEngine engine=new GameEngine(1, 2, 0, new Random());
+		long moves=0;
+		int[] results=new int[3];
+		for(Game game : games) {
+			new Replayer(game, engine).seek(game.getMoveCount());
+			moves+=game.getMoveCount();
+			results[engine.getState()]++;
+		}
+		double seconds=(System.nanoTime()-start)/1e9;
+		System.out.printf("%d games, %d moves in %.3f s (%.0f moves/s): running %d, won %d, lost %d%n",
+				games.size(), moves, seconds, moves/seconds, results[GameEngine.RUNNING], results[GameEngine.WON], results[GameEngine.LOST]);
+	}
+}
@@ -0,0 +1,215 @@
+package minesweeper;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This class holds histograms of the hot paths of the game: moves, areas revealed by them, first click preparation, redrawing and sending events to listeners.
+ * It also shows counters of notifications received, merged and delivered by queues of user interface updates (see {@link UiUpdateQueue}).
+ * <p>
+ * Metrics are collected only when program is started with -Dminesweeper.metrics=true. {@link #ENABLED} is constant, so when it's false JIT removes the checks and the timing together with them and metrics cost nothing.
+ * Measured code looks like this:
+ * <pre>
+ * long start=Metrics.ENABLED ? System.nanoTime() : 0;
+ * ...
+ * if(Metrics.ENABLED)
+ * 	Metrics.REVEAL_TILE.recordSince(start);
+ * </pre>
+ * When enabled, histograms can be read through JMX (see {@link MetricsMXBean}) and are written to standard error every minute (period is set by minesweeper.metrics.dump property in seconds, 0 turns it off) and when program exits.
+ * @author Tomek
+ *
+ */
+public final class Metrics {
+	/** True if metrics are collected. */
+	public static final boolean ENABLED=Boolean.getBoolean("minesweeper.metrics");
+	/** How often histograms are written to standard error, in seconds. */
+	static final long DUMP_PERIOD=Long.getLong("minesweeper.metrics.dump", 60);
+
+	/** Duration of whole reveal move, including first click preparation. */
+	public static final Histogram REVEAL_TILE=new Histogram("revealTile", Histogram.NANOS);
+	/** Number of fields revealed by one reveal of empty area. */
+	public static final Histogram REVEAL_ZEROS=new Histogram("revealZeros", "fields");
+	/** Duration of placing bombs on first click, with search for no-guess board. */
+	public static final Histogram PLACE_BOMBS=new Histogram("firstClick.placeBombs", Histogram.NANOS);
+	/** Duration of counting neighbours on first click. */
+	public static final Histogram CALC_NEIGHBOURS=new Histogram("firstClick.calcNeighbours", Histogram.NANOS);
+	/** Duration of moving bombs away from first clicked field (see {@link FirstClickPolicy}). */
+	public static final Histogram CLEAR_OPENING=new Histogram("firstClick.clearOpening", Histogram.NANOS);
+	/** Duration of finding changed fields and requesting their repaint. */
+	public static final Histogram REDRAW_BOARD=new Histogram("view.redrawBoard", Histogram.NANOS);
+	/** Duration of painting the board. */
+	public static final Histogram PAINT_BOARD=new Histogram("view.paintBoard", Histogram.NANOS);
+	/** Duration of sending one set of events to all listeners of model. */
+	public static final Histogram NOTIFY=new Histogram("events.notify", Histogram.NANOS);
+	/** Number of listeners which got one set of events. */
+	public static final Histogram FAN_OUT=new Histogram("events.fanOut", "listeners");
+
+	private static final Histogram[] ALL={REVEAL_TILE, REVEAL_ZEROS, PLACE_BOMBS, CALC_NEIGHBOURS, CLEAR_OPENING, REDRAW_BOARD, PAINT_BOARD, NOTIFY, FAN_OUT};
+	/** Queues of user interface updates whose counters are shown. */
+	private static final List<UiUpdateQueue> UI_QUEUES=new CopyOnWriteArrayList<UiUpdateQueue>();
+
+	static {
+		if(ENABLED)
+			start();
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * Registers MBean and starts periodic and final dumps.
+	 */
+	private static void start() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName("minesweeper:type=Metrics"));
+		}catch(JMException e) {
+			System.err.println("Can't register metrics MBean: "+e);
+		}
+		if(DUMP_PERIOD>0) {
+			ScheduledThreadPoolExecutor dumper=new ScheduledThreadPoolExecutor(1, runnable -> {
+				Thread thread=new Thread(runnable, "metrics-dump");
+				thread.setDaemon(true);
+				return thread;
+			});
+			dumper.scheduleAtFixedRate(() -> dump(System.err), DUMP_PERIOD, DUMP_PERIOD, TimeUnit.SECONDS);
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.err), "metrics-final-dump"));
+	}
+
+	/**
+	 * Starts showing counters of queue of user interface updates.
+	 */
+	static void watch(UiUpdateQueue queue) {
+		UI_QUEUES.add(queue);
+	}
+
+	/**
+	 * Stops showing counters of queue of user interface updates.
+	 */
+	static void unwatch(UiUpdateQueue queue) {
+		UI_QUEUES.remove(queue);
+	}
+
+	/**
+	 * @return notifications received by all watched queues of user interface updates
+	 */
+	static long getUiReceived() {
+		long sum=0;
+		for(UiUpdateQueue queue : UI_QUEUES)
+			sum+=queue.getReceivedCount();
+		return sum;
+	}
+
+	/**
+	 * @return notifications merged into waiting events by all watched queues of user interface updates
+	 */
+	static long getUiMerged() {
+		long sum=0;
+		for(UiUpdateQueue queue : UI_QUEUES)
+			sum+=queue.getMergedCount();
+		return sum;
+	}
+
+	/**
+	 * @return deliveries made by all watched queues of user interface updates
+	 */
+	static long getUiDelivered() {
+		long sum=0;
+		for(UiUpdateQueue queue : UI_QUEUES)
+			sum+=queue.getDeliveredCount();
+		return sum;
+	}
+
+	/**
+	 * Writes one line for every histogram which has any values and one line with counters of queues of user interface updates, if there are any.
+	 */
+	public static void dump(PrintStream out) {
+		StringBuilder text=new StringBuilder("Minesweeper metrics:");
+		for(Histogram histogram : ALL)
+			if(histogram.getCount()>0)
+				text.append(System.lineSeparator()).append("  ").append(histogram);
+		if(!UI_QUEUES.isEmpty())
+			text.append(System.lineSeparator()).append(String.format("  %-26s received=%d merged=%d delivered=%d", "ui.updates", getUiReceived(), getUiMerged(), getUiDelivered()));
+		out.println(text);
+	}
+
+	/**
+	 * @return histogram with given name
+	 * @throws IllegalArgumentException if there is no such histogram
+	 */
+	static Histogram get(String name) {
+		for(Histogram histogram : ALL)
+			if(histogram.getName().equals(name))
+				return histogram;
+		throw new IllegalArgumentException("No histogram named "+name);
+	}
+
+	/**
+	 * MBean which reads histograms.
+	 */
+	static class Bean implements MetricsMXBean {
+		@Override
+		public String[] getNames() {
+			String[] names=new String[ALL.length];
+			for(int i=0; i<ALL.length; ++i)
+				names[i]=ALL[i].getName();
+			return names;
+		}
+
+		@Override
+		public String[] getSummary() {
+			String[] lines=new String[ALL.length];
+			for(int i=0; i<ALL.length; ++i)
+				lines[i]=ALL[i].toString();
+			return lines;
+		}
+
+		@Override
+		public long getCount(String name) {
+			return get(name).getCount();
+		}
+
+		@Override
+		public double getMean(String name) {
+			return get(name).getMean();
+		}
+
+		@Override
+		public long getPercentile(String name, double percentile) {
+			return get(name).getPercentile(percentile);
+		}
+
+		@Override
+		public long getMax(String name) {
+			return get(name).getMax();
+		}
+
+		@Override
+		public long getUiReceived() {
+			return Metrics.getUiReceived();
+		}
+
+		@Override
+		public long getUiMerged() {
+			return Metrics.getUiMerged();
+		}
+
+		@Override
+		public long getUiDelivered() {
+			return Metrics.getUiDelivered();
+		}
+
+		@Override
+		public void reset() {
+			for(Histogram histogram : ALL)
+				histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package minesweeper;
+
+/**
+ * This is management interface of {@link Metrics}, registered in platform MBean server as minesweeper:type=Metrics, so histograms can be read with JConsole or any other JMX client.
+ * Histograms are chosen by their names (see {@link #getNames()}), durations are in nanoseconds.
+ * @author Tomek
+ *
+ */
+public interface MetricsMXBean {
+	/**
+	 * @return names of all histograms
+	 */
+	String[] getNames();
+
+	/**
+	 * @return one line for every histogram with it's count, mean, percentiles and maximum
+	 */
+	String[] getSummary();
+
+	long getCount(String name);
+
+	double getMean(String name);
+
+	long getPercentile(String name, double percentile);
+
+	long getMax(String name);
+
+	/**
+	 * @return number of notifications received by queues of user interface updates (see {@link UiUpdateQueue#getReceivedCount()})
+	 */
+	long getUiReceived();
+
+	/**
+	 * @return number of notifications merged into events already waiting for delivery
+	 */
+	long getUiMerged();
+
+	/**
+	 * @return number of times events were delivered to user interface
+	 */
+	long getUiDelivered();
+
+	/**
+	 * Forgets values of all histograms.
+	 */
+	void reset();
+}
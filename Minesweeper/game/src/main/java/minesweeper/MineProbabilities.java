@@ -0,0 +1,402 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This is calculator of exact probability that hidden field has a bomb, given everything that is revealed and total number of bombs.
+ * <p>
+ * Every revealed field with hidden neighbours is a constraint on number of bombs among them. Hidden fields next to revealed ones (the frontier) are split into components which share no constraint,
+ * and every component is enumerated on it's own: for each number of bombs in it, enumeration counts bomb layouts which satisfy all it's constraints and how many of them put a bomb on each field.
+ * Components are enumerated in parallel by common fork-join pool.
+ * Hidden fields far from revealed ones (the interior) are not enumerated: any k of them hold the bombs which are not in the frontier in C(interior, k) ways, so components are combined by convolving their counts and weighting every total with that binomial.
+ * <p>
+ * Results of components are remembered between calculations. Move which doesn't reveal anything in or next to component leaves it's fields, constraints and their numbers the same, so it is taken from cache and only changed components are enumerated again.
+ * Cache is cleared when new game starts (see {@link #reset()}).
+ * Flags are not trusted, flagged fields count as hidden.
+ * @author Tomek
+ *
+ */
+public class MineProbabilities {
+	private final GameEngine engine;
+	private Map<Key, Component> cache=new HashMap<Key, Component>();
+	private int width, height;
+	private double[] logFactorials=new double[1];
+	private int[] parent;
+
+	public MineProbabilities(GameEngine engine) {
+		this.engine=engine;
+	}
+
+	/**
+	 * Forgets results of components remembered from previous calculations. It is called when new game starts, whose components have nothing to do with the previous game.
+	 */
+	public void reset() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Calculates probability of bomb for every field of engine's board.
+	 * @return array indexed like fields of the board, revealed fields have 0 and hidden ones have NaN if revealed numbers contradict each other
+	 */
+	public double[] calculate() {
+		Board board=this.engine.getBoard();
+		if(board.getWidth()!=this.width || board.getHeight()!=this.height) {
+			this.width=board.getWidth();
+			this.height=board.getHeight();
+			this.cache.clear();
+			this.parent=new int[board.size()];
+		}
+		double[] probabilities=new double[board.size()];
+		int bombsLeft=this.engine.getTotalBombs();
+		List<Component> components=this.findComponents(board);
+		List<Component> pending=new ArrayList<Component>();
+		Map<Key, Component> cache=new HashMap<Key, Component>();
+		for(int c=0; c<components.size(); ++c) {
+			Component component=components.get(c);
+			Component cached=this.cache.get(component.key);
+			if(cached!=null)
+				components.set(c, component=cached);
+			else
+				pending.add(component);
+			cache.put(component.key, component);
+		}
+		this.cache=cache;
+		if(pending.size()==1)
+			pending.get(0).invoke();
+		else if(!pending.isEmpty())
+			ForkJoinTask.invokeAll(pending);
+
+		int interior=0;
+		for(int i=0; i<board.size(); ++i) {
+			int x=i%this.width, y=i/this.width;
+			if(board.getRevealed(x, y)) {
+				if(board.getBomb(x, y))
+					bombsLeft--;
+			}else if(this.parent[i]<0)
+				interior++;
+		}
+		this.combine(components, interior, bombsLeft, probabilities);
+		return probabilities;
+	}
+
+	/**
+	 * Finds constraints and groups them with their hidden neighbours into components, joining components which share a field.
+	 * Afterwards parent array marks frontier fields with non-negative values and other fields with -1.
+	 */
+	private List<Component> findComponents(Board board) {
+		int[] parent=this.parent;
+		Arrays.fill(parent, -1);
+		for(int i=0; i<board.size(); ++i) {
+			if(!this.isConstraint(board, i))
+				continue;
+			int root=-1;
+			for(int n : this.hiddenNeighbours(board, i)) {
+				if(parent[n]<0)
+					parent[n]=n;
+				if(root<0)
+					root=find(parent, n);
+				else
+					parent[find(parent, n)]=root;
+			}
+		}
+		Map<Integer, Component> byRoot=new HashMap<Integer, Component>();
+		List<Component> components=new ArrayList<Component>();
+		for(int i=0; i<board.size(); ++i) {
+			if(!this.isConstraint(board, i))
+				continue;
+			int[] neighbours=this.hiddenNeighbours(board, i);
+			int root=find(parent, neighbours[0]);
+			Component component=byRoot.get(root);
+			if(component==null) {
+				component=new Component();
+				byRoot.put(root, component);
+				components.add(component);
+			}
+			component.addConstraint(i, board.getNeighbours(i%this.width, i/this.width), neighbours);
+		}
+		for(Component component : components)
+			component.build();
+		return components;
+	}
+
+	private static int find(int[] parent, int i) {
+		while(parent[i]!=i)
+			i=parent[i]=parent[parent[i]];
+		return i;
+	}
+
+	/**
+	 * @return true if field is revealed, has no bomb and has at least one hidden neighbour
+	 */
+	private boolean isConstraint(Board board, int i) {
+		int x=i%this.width, y=i/this.width;
+		if(!board.getRevealed(x, y) || board.getBomb(x, y))
+			return false;
+		for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx)
+			for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+				if(!board.getRevealed(nx, ny))
+					return true;
+		return false;
+	}
+
+	/**
+	 * @return indices of hidden fields around field i, from the smallest
+	 */
+	private int[] hiddenNeighbours(Board board, int i) {
+		int x=i%this.width, y=i/this.width;
+		int[] neighbours=new int[8];
+		int count=0;
+		for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+			for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx)
+				if(!board.getRevealed(nx, ny))
+					neighbours[count++]=board.index(nx, ny);
+		return Arrays.copyOf(neighbours, count);
+	}
+
+	/**
+	 * Combines counts of components with binomial weights of interior and writes probabilities of all hidden fields.
+	 * Counts of every component are scaled so that the biggest is 1 and convolutions are scaled the same way, which keeps them in range of double on big boards. Scale cancels out in every probability.
+	 */
+	private void combine(List<Component> components, int interior, int bombs, double[] probabilities) {
+		int m=components.size();
+		double[][] prefix=new double[m+1][];
+		double[][] suffix=new double[m+1][];
+		prefix[0]=new double[] {1};
+		suffix[m]=new double[] {1};
+		for(int c=0; c<m; ++c)
+			prefix[c+1]=convolve(prefix[c], components.get(c).ways);
+		for(int c=m-1; c>=0; --c)
+			suffix[c]=convolve(components.get(c).ways, suffix[c+1]);
+		double[] weights=this.interiorWeights(interior, bombs, prefix[m].length);
+
+		for(int c=0; c<m; ++c) {
+			Component component=components.get(c);
+			double[] others=convolve(prefix[c], suffix[c+1]);
+			int size=component.fields.length;
+			double[] weight=new double[size+1];
+			double total=0;
+			for(int k=0; k<=size; ++k) {
+				for(int j=0; j<others.length; ++j)
+					weight[k]+=others[j]*weights[k+j];
+				total+=component.ways[k]*weight[k];
+			}
+			for(int f=0; f<size; ++f) {
+				double bomb=0;
+				for(int k=0; k<=size; ++k)
+					bomb+=component.bombWays[f*(size+1)+k]*weight[k];
+				probabilities[component.fields[f]]=bomb/total;
+			}
+		}
+
+		double bomb=0, total=0;
+		double[] all=prefix[m];
+		for(int t=0; t<all.length; ++t) {
+			total+=all[t]*weights[t];
+			if(interior>0)
+				bomb+=all[t]*weights[t]*(bombs-t)/interior;
+		}
+		double probability=bomb/total;
+		for(int i=0; i<probabilities.length; ++i)
+			if(this.parent[i]<0 && !this.engine.getBoard().getRevealed(i%this.width, i/this.width))
+				probabilities[i]=probability;
+	}
+
+	/**
+	 * @return array of C(interior, bombs-t) for every number t of bombs in the frontier, scaled so that the biggest is 1
+	 */
+	private double[] interiorWeights(int interior, int bombs, int frontier) {
+		if(this.logFactorials.length<=interior) {
+			int from=this.logFactorials.length;
+			this.logFactorials=Arrays.copyOf(this.logFactorials, interior+1);
+			for(int n=from; n<=interior; ++n)
+				this.logFactorials[n]=this.logFactorials[n-1]+Math.log(n);
+		}
+		double[] weights=new double[frontier];
+		double max=Double.NEGATIVE_INFINITY;
+		for(int t=0; t<frontier; ++t) {
+			int k=bombs-t;
+			weights[t]=k<0 || k>interior ? Double.NEGATIVE_INFINITY : this.logFactorials[interior]-this.logFactorials[k]-this.logFactorials[interior-k];
+			max=Math.max(max, weights[t]);
+		}
+		for(int t=0; t<frontier; ++t)
+			weights[t]=Math.exp(weights[t]-max);
+		return weights;
+	}
+
+	/**
+	 * @return convolution of two arrays of counts scaled so that it's biggest element is 1
+	 */
+	private static double[] convolve(double[] a, double[] b) {
+		double[] result=new double[a.length+b.length-1];
+		double max=0;
+		for(int i=0; i<a.length; ++i)
+			for(int j=0; j<b.length; ++j)
+				result[i+j]+=a[i]*b[j];
+		for(int i=0; i<result.length; ++i)
+			max=Math.max(max, result[i]);
+		if(max>0)
+			for(int i=0; i<result.length; ++i)
+				result[i]/=max;
+		return result;
+	}
+
+	/**
+	 * Fields, constraints and numbers of bombs they need of one component, which identify it in cache.
+	 */
+	private static final class Key {
+		private final int[] values;
+		private final int hash;
+
+		Key(int[] values) {
+			this.values=values;
+			this.hash=Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Key && Arrays.equals(this.values, ((Key)other).values);
+		}
+	}
+
+	/**
+	 * One component of the frontier together with results of it's enumeration.
+	 * Fields are enumerated in order in which constraints reach them, so constraints are closed early and bad layouts are cut off near the root.
+	 */
+	private static final class Component extends RecursiveAction {
+		private static final long serialVersionUID = 1;
+		private List<int[]> constraintFields=new ArrayList<int[]>();
+		private List<Integer> constraintIndices=new ArrayList<Integer>();
+		private List<Integer> constraintBombs=new ArrayList<Integer>();
+		Key key;
+		int[] fields;
+		/** For every constraint, how many bombs must be among it's fields. */
+		private int[] need;
+		/** For every field, indices of constraints which contain it. */
+		private int[][] constraintsOf;
+		/** Number of layouts for every number of bombs, scaled so that the biggest is 1. */
+		double[] ways;
+		/** Number of layouts with bomb on field f for every number k of bombs, at f*(fields+1)+k, scaled like ways. */
+		double[] bombWays;
+		private int[] placed, unassigned;
+		private boolean[] layout;
+
+		void addConstraint(int index, int bombs, int[] neighbours) {
+			this.constraintIndices.add(index);
+			this.constraintBombs.add(bombs);
+			this.constraintFields.add(neighbours);
+		}
+
+		/**
+		 * Orders fields and prepares arrays used by enumeration.
+		 */
+		void build() {
+			Map<Integer, Integer> order=new HashMap<Integer, Integer>();
+			for(int[] neighbours : this.constraintFields)
+				for(int n : neighbours)
+					if(!order.containsKey(n))
+						order.put(n, order.size());
+			int size=order.size(), constraints=this.constraintFields.size();
+			this.fields=new int[size];
+			for(Map.Entry<Integer, Integer> entry : order.entrySet())
+				this.fields[entry.getValue()]=entry.getKey();
+			this.need=new int[constraints];
+			this.unassigned=new int[constraints];
+			int[] counts=new int[size];
+			for(int c=0; c<constraints; ++c) {
+				this.need[c]=this.constraintBombs.get(c);
+				for(int n : this.constraintFields.get(c))
+					counts[order.get(n)]++;
+				this.unassigned[c]=this.constraintFields.get(c).length;
+			}
+			this.constraintsOf=new int[size][];
+			for(int f=0; f<size; ++f)
+				this.constraintsOf[f]=new int[counts[f]];
+			Arrays.fill(counts, 0);
+			for(int c=0; c<constraints; ++c)
+				for(int n : this.constraintFields.get(c)) {
+					int f=order.get(n);
+					this.constraintsOf[f][counts[f]++]=c;
+				}
+
+			int[] sorted=this.fields.clone();
+			Arrays.sort(sorted);
+			int[] key=Arrays.copyOf(sorted, size+1+2*constraints);
+			key[size]=-1;
+			for(int c=0; c<constraints; ++c) {
+				key[size+1+2*c]=this.constraintIndices.get(c);
+				key[size+2+2*c]=this.need[c];
+			}
+			this.key=new Key(key);
+			this.constraintFields=null;
+			this.constraintIndices=null;
+			this.constraintBombs=null;
+		}
+
+		/**
+		 * Enumerates all layouts of bombs which satisfy constraints.
+		 */
+		@Override
+		protected void compute() {
+			int size=this.fields.length;
+			this.ways=new double[size+1];
+			this.bombWays=new double[size*(size+1)];
+			this.placed=new int[this.need.length];
+			this.layout=new boolean[size];
+			this.enumerate(0, 0);
+			double max=0;
+			for(int k=0; k<=size; ++k)
+				max=Math.max(max, this.ways[k]);
+			if(max>0) {
+				for(int k=0; k<=size; ++k)
+					this.ways[k]/=max;
+				for(int i=0; i<this.bombWays.length; ++i)
+					this.bombWays[i]/=max;
+			}
+			this.placed=null;
+			this.unassigned=null;
+			this.layout=null;
+		}
+
+		private void enumerate(int f, int bombs) {
+			int size=this.fields.length;
+			if(f==size) {
+				this.ways[bombs]++;
+				for(int i=0; i<size; ++i)
+					if(this.layout[i])
+						this.bombWays[i*(size+1)+bombs]++;
+				return;
+			}
+			int[] constraints=this.constraintsOf[f];
+			boolean empty=true, bomb=true;
+			for(int c : constraints) {
+				this.unassigned[c]--;
+				empty&=this.placed[c]+this.unassigned[c]>=this.need[c];
+				bomb&=this.placed[c]<this.need[c];
+			}
+			if(empty)
+				this.enumerate(f+1, bombs);
+			if(bomb) {
+				this.layout[f]=true;
+				for(int c : constraints)
+					this.placed[c]++;
+				this.enumerate(f+1, bombs+1);
+				for(int c : constraints)
+					this.placed[c]--;
+				this.layout[f]=false;
+			}
+			for(int c : constraints)
+				this.unassigned[c]++;
+		}
+	}
+}
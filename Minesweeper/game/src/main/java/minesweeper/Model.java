@@ -0,0 +1,575 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This is model class which connects minesweeper game with user interface. Rules of the game are in {@link GameEngine}, model adds game clock and notifies listeners about changes made by the game (see {@link GameEvent}).
+ * Every public function which changes the game is one move: all changes it makes are collected and sent to listeners together when the move ends, so one move gives one notification.
+ * Boards of the next games of current mode are prepared in background while the game is played (see {@link BoardPregenerator}), so first click doesn't have to place bombs. Big custom boards are not prepared, so they are kept in memory only once.
+ * <p>
+ * Infinite mode is played on {@link InfiniteBoard} instead of engine's board. Moves are passed to it, hint, solver, probabilities and journal are not used and game can only be lost.
+ * Engine keeps the last bounded game meanwhile, it's replaced when mode is changed or game is loaded again.
+ * @author Tomek
+ *
+ */
+public class Model {
+	private final GameEngine engine;
+	private final Solver solver;
+	private final MineProbabilities probabilities;
+	private final GameClock clock=new GameClock(() -> notifyListeners(GameEvent.TIMER.mask()));
+	/** Copied on every change, so clock thread can read it while listeners are added on event dispatch thread. */
+	private volatile GameListener[] listeners=new GameListener[0];
+	private int pendingEvents;
+	private int moveDepth;
+	private final Random seeds=new Random();
+	private long seed;
+	private boolean noGuess;
+	private final BoardPregenerator pregenerator=new BoardPregenerator();
+	private MoveJournal journal;
+	private boolean journaling;
+	/** Most chunks of infinite board kept in memory, 256 chunks take 1 MB. Can be set by minesweeper.infinite.chunks property. */
+	static final int INFINITE_CHUNKS=Integer.getInteger("minesweeper.infinite.chunks", 256);
+	/** Directory to which changed chunks of infinite board are written. Can be set by minesweeper.infinite.spill property. */
+	static final Path INFINITE_SPILL=Paths.get(System.getProperty("minesweeper.infinite.spill", Paths.get(System.getProperty("java.io.tmpdir"), "minesweeper-chunks").toString()));
+	/** Board of infinite mode, null in other modes. */
+	private InfiniteBoard infinite;
+	private double infiniteDensity;
+	
+	/** 
+	 * This function is used to change parameters of game such as field size and number of bombs. It will build new board, update model parameters, reset timer, first-click flag and notify listeners by {@link GameEvent#MODE_CHANGED}.
+	 * @param width - width of field
+	 * @param height - height of field
+	 * @param bombs - number of bombs in game
+	 */
+	public void changeMode(int width, int height, int bombs)	{
+		this.beginMove();
+		try {
+			this.engine.setPregenerator(null); //big board must not be prepared before it's turned off
+			this.engine.changeMode(width, height, bombs);
+			this.closeInfinite();
+			this.updatePregenerator();
+			this.newGame();
+			this.solver.reset();
+			this.probabilities.reset();
+			this.resetTimer();
+			this.fire(GameEvent.MODE_CHANGED);
+		}finally {
+			this.endMove();
+		}
+	}
+	
+	public Model(int width, int height, int bombs)	{
+		this.engine=new GameEngine(width, height, bombs, new Random());
+		this.updatePregenerator();
+		this.engine.setFirstClickPolicy(FirstClickPolicy.DEFAULT);
+		this.solver=new Solver(this.engine);
+		this.probabilities=new MineProbabilities(this.engine);
+		this.newGame();
+	}
+	
+	/**
+	 * This function starts infinite game on new board with random world seed (see {@link InfiniteBoard}). Game is played until bomb is revealed, counter shows number of revealed fields instead of bombs left.
+	 * Board of previous infinite game is closed. It notifies listeners by {@link GameEvent#MODE_CHANGED}, {@link GameEvent#BOMB_COUNTER}, {@link GameEvent#TIMER} and {@link GameEvent#RESET}.
+	 * @param density - chance that field has a bomb, from {@link InfiniteBoard#MIN_DENSITY} to 1
+	 */
+	public void startInfinite(double density) {
+		this.beginMove();
+		try {
+			InfiniteBoard board=new InfiniteBoard(this.seeds.nextLong(), density, INFINITE_CHUNKS, INFINITE_SPILL);
+			this.closeInfinite();
+			this.infinite=board;
+			this.infiniteDensity=density;
+			this.journaling=false;
+			this.resetTimer();
+			this.fire(GameEvent.MODE_CHANGED);
+			this.fire(GameEvent.BOMB_COUNTER);
+			this.fire(GameEvent.RESET);
+		}finally {
+			this.endMove();
+		}
+	}
+	
+	/**
+	 * Ends infinite mode if it's played, deleting chunks it's board has written to disk. Files which can't be deleted are only reported, because game can go on without them.
+	 */
+	public void closeInfinite() {
+		if(this.infinite==null)
+			return;
+		try {
+			this.infinite.close();
+		}catch(IOException e) {
+			System.err.println("Can't delete chunks of infinite board: "+e);
+		}
+		this.infinite=null;
+	}
+	
+	/**
+	 * @return board of infinite mode, or null if bounded game is played
+	 */
+	public InfiniteBoard getInfiniteBoard() {
+		return this.infinite;
+	}
+	
+	/**
+	 * Gives engine board pregenerator if board of it's mode has at most {@link BoardPool#MAX_FIELDS} fields. For bigger boards pregenerator is turned off and it's boards are dropped,
+	 * because ready and recycled boards would keep several boards of that size in memory.
+	 */
+	private void updatePregenerator() {
+		if((long)this.engine.getWidth()*this.engine.getHeight()<=BoardPool.MAX_FIELDS)
+			this.engine.setPregenerator(this.pregenerator);
+		else {
+			this.engine.setPregenerator(null);
+			this.pregenerator.clear();
+		}
+	}
+	
+	/**
+	 * Draws seed of new game, gives engine generator with this seed and records start of the game in journal.
+	 */
+	private void newGame() {
+		this.seed=this.seeds.nextLong();
+		this.engine.setRandom(new Random(this.seed));
+		this.journaling=this.journal!=null;
+		if(this.journaling)
+			this.journal.startGame(this.engine.getWidth(), this.engine.getHeight(), this.engine.getTotalBombs(), this.seed);
+	}
+	
+	/**
+	 * This function stops timer, sets it back to zero and notify listeners by {@link GameEvent#TIMER}.
+	 */
+	public void resetTimer() {
+		this.clock.reset();
+		this.fire(GameEvent.TIMER);
+	}
+	
+	/**
+	 * This functions starts game clock. While game is running (that means it is not won or lost and first move was made) clock notifies listeners by {@link GameEvent#TIMER} every second.
+	 * Clock is run by thread shared by all games (see {@link GameClock}).
+	 */
+	public void startTimer() {
+		this.clock.start();
+	}
+	
+	/**
+	 * Gives model blank board of it's size, reusing board of that size played before if there is one (see {@link GameEngine#buildBoard()}).
+	 */
+	public void buildBoard() {
+		this.engine.buildBoard();
+	}
+	
+	/**
+	 * Function places number of bombs specified by model's totalBombs variable (see {@link GameEngine#placeBombs(int, int)}).
+	 * @param xForbidden - x position of field which can't have bomb.
+	 * @param yForbidden - y position of field which can't have bomb.
+	 */
+	public void placeBombs(int xForbidden, int yForbidden) {
+		this.engine.placeBombs(xForbidden, yForbidden);
+	}
+	
+	/**
+	 * Sets generator used to place bombs. Generator created with fixed seed makes every game reproducible.
+	 * Model gives every game generator with seed of it's own, which is recorded in journal, so generator set here is used only until the next game and such game can't be replayed from journal.
+	 * @param random - source of random numbers
+	 */
+	public void setRandom(Random random) {
+		this.engine.setRandom(random);
+	}
+	
+	/**
+	 * Turns no-guess mode on or off. In no-guess mode first click places bombs so that the game can be finished without guessing (see {@link NoGuessGenerator}).
+	 * It applies to the game which wasn't started yet and all following games.
+	 * @param noGuess - true to turn no-guess mode on
+	 */
+	public void setNoGuess(boolean noGuess) {
+		this.noGuess=noGuess;
+		this.engine.setNoGuess(noGuess ? new NoGuessGenerator() : null);
+	}
+	
+	/**
+	 * Sets how much of the board around first clicked field is kept without bombs, so first click can always open an area (see {@link FirstClickPolicy}).
+	 * It applies to the game which wasn't started yet and all following games. Default policy is given by minesweeper.firstClick property.
+	 * @param policy - first click policy
+	 */
+	public void setFirstClickPolicy(FirstClickPolicy policy) {
+		this.engine.setFirstClickPolicy(policy);
+	}
+	
+	/**
+	 * Sets journal to which every following game and move is written (see {@link MoveJournal}). If the current game wasn't started yet it is recorded too.
+	 * @param journal - journal or null to stop recording
+	 */
+	public void setJournal(MoveJournal journal) {
+		this.journal=journal;
+		this.journaling=journal!=null && this.engine.isFirstClick();
+		if(this.journaling)
+			journal.startGame(this.engine.getWidth(), this.engine.getHeight(), this.engine.getTotalBombs(), this.seed);
+	}
+	
+	/**
+	 * Calculate how many bombs are on adjacent fields and mark it on that field's neighbors variable.
+	 * Counting is done by the board (see {@link Board#calcNeighbours()}), which picks cheaper method depending on how dense the bombs are.
+	 */
+	public void calcNeighbours() {
+		this.engine.calcNeighbours();
+	}
+	/**
+	 * This function resets whole game (removes bombs, zeroes timer etc.) and notifies listeners
+	 * by {@link GameEvent#BOMB_COUNTER}, {@link GameEvent#FIELDS}, {@link GameEvent#TIMER} and {@link GameEvent#RESET} at once.
+	 * It uses multiple functions to reset each part of the game (see {@link GameEngine#reset()} and {@link #resetTimer()})
+	 */
+	public void reset(){
+		if(this.infinite!=null) {
+			this.startInfinite(this.infiniteDensity);
+			return;
+		}
+		this.beginMove();
+		try {
+			this.engine.reset();
+			this.newGame();
+			this.solver.reset();
+			this.probabilities.reset();
+			this.resetTimer();
+			
+			this.fire(GameEvent.BOMB_COUNTER);
+			this.fire(GameEvent.FIELDS);
+			this.fire(GameEvent.RESET);
+		}finally {
+			this.endMove();
+		}
+	}
+	
+	/**
+	 * This function resets game board. It clears every field of the board (see {@link Board#reset()}).
+	 */
+	public void resetBoard() {
+		this.engine.getBoard().reset();
+	}
+	
+    /**
+     * @return number of full seconds which passed since first move
+     */
+    public int getTimer() {
+        return (int)(this.clock.getElapsedMillis()/1000);
+    }
+    
+    /**
+     * @return time which passed since first move in milliseconds
+     */
+    public long getElapsedMillis() {
+        return this.clock.getElapsedMillis();
+    }
+    
+    public int getWidth() {
+        return this.engine.getWidth();
+    }
+    
+    public int getHeight() {
+        return this.engine.getHeight();
+    }
+    
+    public int getBombCounter() {
+    	return this.engine.getBombCounter();
+    }
+    
+    public Board getBoard() {
+    	return this.engine.getBoard();
+    }
+    
+    /**
+     * @return engine which holds rules and state of the game
+     */
+    public GameEngine getEngine() {
+    	return this.engine;
+    }
+    
+    /**
+     * This function is used to reveal all fields with zero neighbors adjacent to the clicked field (including it) together with numbered fields bordering them (see {@link GameEngine#revealZeros(int, int)}).
+     * @param x - x position in array
+     * @param y - y position in array
+     * @return number of newly revealed fields
+     */
+    public int revealZeros(int x, int y) {
+    	return this.engine.revealZeros(x, y);
+    }
+    
+    /**
+     * This function will reveal unrevealed field (see {@link GameEngine#revealTile(int, int)}).
+     * If it is first click of the game, it starts the timer. In infinite mode field of {@link InfiniteBoard} is revealed.
+     * It notifies listeners by {@link GameEvent#FIELDS} if any field was revealed, by {@link GameEvent#BOMB_COUNTER} if flag had to be removed from the field and about the end of game (see {@link #endGame()}).
+     * @param x - x position in array
+     * @param y - y position in array
+     */
+    public void revealTile(int x, int y){
+    	this.beginMove();
+    	try {
+    		if(this.infinite!=null) {
+    			this.revealInfinite(x, y);
+    			return;
+    		}
+    		boolean firstClick=this.engine.isFirstClick();
+    		int bombCounter=this.engine.getBombCounter();
+    		int revealed=this.engine.revealTile(x, y);
+    		if(this.journaling) {
+    			this.journal.reveal(this.engine.getBoard().index(x, y), this.clock.getElapsedMillis());
+    			if(firstClick && !this.engine.isFirstClick() && !this.engine.hasSeededLayout())
+    				this.journal.layout(this.engine.getBoard());
+    		}
+    		this.solver.revealed(x, y);
+    		if(firstClick && !this.engine.isFirstClick())
+    			this.startTimer();
+    		if(bombCounter!=this.engine.getBombCounter())
+    			this.fire(GameEvent.BOMB_COUNTER);
+    		if(revealed>0) {
+    			this.fire(GameEvent.FIELDS);
+    			this.endGame();
+    		}
+    	}finally {
+    		this.endMove();
+    	}
+    }
+    
+    /**
+     * Reveals field of infinite board. Timer is started by the first revealed field and stopped when bomb is revealed.
+     */
+    private void revealInfinite(int x, int y) {
+    	boolean firstClick=this.infinite.getRevealedCounter()==0;
+    	if(this.infinite.reveal(x, y)==0)
+    		return;
+    	if(firstClick)
+    		this.startTimer();
+    	this.fire(GameEvent.FIELDS);
+    	this.fire(GameEvent.BOMB_COUNTER);
+    	if(this.infinite.getState()==GameEngine.LOST) {
+    		this.clock.stop();
+    		this.fire(GameEvent.LOST);
+    	}
+    }
+    
+    /**
+     * This function makes one move which is certainly right, if such move can be deduced from revealed fields (see {@link Solver}).
+     * It reveals field which certainly has no bomb or, if there is none, flags field which certainly has a bomb. There are no hints in infinite mode.
+     * @return true if move was made
+     */
+    public boolean hint() {
+    	if(this.infinite!=null || this.engine.isFirstClick() || this.engine.getState()!=GameEngine.RUNNING)
+    		return false;
+    	int safe=this.solver.nextSafe();
+    	if(safe>=0) {
+    		this.revealTile(safe%this.getWidth(), safe/this.getWidth());
+    		return true;
+    	}
+    	int mine=this.solver.nextMine();
+    	if(mine>=0) {
+    		this.changeState(mine%this.getWidth(), mine/this.getWidth());
+    		return true;
+    	}
+    	return false;
+    }
+    
+    /**
+     * This function saves game with it's time to file (see {@link GameFile}).
+     * @param file - path of the file
+     * @throws IOException if file can't be written or infinite game is played, which can't be saved
+     */
+    public void save(Path file) throws IOException {
+    	if(this.infinite!=null)
+    		throw new IOException("Infinite game can't be saved");
+    	GameFile.save(file, this.engine, this.clock.getElapsedMillis());
+    }
+    
+    /**
+     * This function replaces game with one saved in file (see {@link GameFile}). If the game is in progress it's clock is started again.
+     * It notifies listeners by {@link GameEvent#MODE_CHANGED}, {@link GameEvent#FIELDS}, {@link GameEvent#BOMB_COUNTER}, {@link GameEvent#TIMER}, {@link GameEvent#RESET} and about the end of game (see {@link #endGame()}).
+     * @param file - path of the file
+     * @throws IOException if file can't be read or isn't correct saved game, game is not changed then
+     */
+    public void load(Path file) throws IOException {
+    	this.beginMove();
+    	try {
+    		long elapsedMillis=GameFile.load(file, this.engine);
+    		this.closeInfinite();
+    		this.updatePregenerator();
+    		this.gameReplaced(elapsedMillis);
+    	}finally {
+    		this.endMove();
+    	}
+    }
+    
+    /**
+     * This function shows recorded game after given number of moves (see {@link JournalReplay}). Moves are replayed on the engine without notifications, listeners are notified once like after {@link #load(Path)}.
+     * @param game - game read from journal
+     * @param move - number of moves to replay
+     */
+    public void replay(JournalReplay.Game game, int move) {
+    	this.beginMove();
+    	FirstClickPolicy policy=this.engine.getFirstClickPolicy();
+    	try {
+    		this.engine.setNoGuess(null);
+    		this.engine.setPregenerator(null);
+    		this.engine.setFirstClickPolicy(FirstClickPolicy.SAFE_FIELD);
+    		JournalReplay.Replayer replayer=new JournalReplay.Replayer(game, this.engine);
+    		replayer.seek(move);
+    		this.closeInfinite();
+    		this.gameReplaced(replayer.getElapsedMillis());
+    	}finally { //journal can be corrupt, live game must get them back anyway
+    		this.setNoGuess(this.noGuess);
+    		this.updatePregenerator();
+    		this.engine.setFirstClickPolicy(policy);
+    		this.endMove();
+    	}
+    }
+    
+    /**
+     * Brings clock, solver and listeners up to date after engine got game from outside. Such game is not recorded in journal.
+     * @param elapsedMillis - game time
+     */
+    private void gameReplaced(long elapsedMillis) {
+    	this.journaling=false;
+    	this.clock.reset(elapsedMillis);
+    	this.solver.reset();
+    	this.probabilities.reset();
+    	Board board=this.engine.getBoard();
+    	for(int i=0; i<board.size(); ++i)
+    		if(board.getRevealed(i%board.getWidth(), i/board.getWidth()))
+    			this.solver.revealed(i%board.getWidth(), i/board.getWidth());
+    	if(!this.engine.isFirstClick() && this.engine.getState()==GameEngine.RUNNING)
+    		this.startTimer();
+    	this.fire(GameEvent.MODE_CHANGED);
+    	this.fire(GameEvent.FIELDS);
+    	this.fire(GameEvent.BOMB_COUNTER);
+    	this.fire(GameEvent.TIMER);
+    	this.fire(GameEvent.RESET);
+    	this.endGame();
+    }
+    
+    /**
+     * This function calculates chance of bomb on every field from revealed fields and number of bombs (see {@link MineProbabilities#calculate()}).
+     * @return probabilities indexed like fields of the board
+     */
+    public double[] getProbabilities() {
+    	return this.probabilities.calculate();
+    }
+    
+    /**
+     * This function is called when user wants to flag or remove flag from field (see {@link GameEngine#changeState(int, int)}).
+     * It notifies listeners by {@link GameEvent#BOMB_COUNTER} and {@link GameEvent#FIELDS} if flag was added or removed.
+     * It also checks for the end of game (see {@link #endGame()}. In infinite mode field of {@link InfiniteBoard} is flagged and only {@link GameEvent#FIELDS} is sent.
+     * @param x - x position in array
+     * @param y - y position in array
+     */
+    public void changeState(int x, int y) {
+    	this.beginMove();
+    	try {
+    		if(this.infinite!=null) {
+    			if(this.infinite.changeState(x, y)!=0)
+    				this.fire(GameEvent.FIELDS);
+    			return;
+    		}
+    		int change=this.engine.changeState(x, y);
+    		if(this.journaling)
+    			this.journal.flag(this.engine.getBoard().index(x, y), this.clock.getElapsedMillis());
+    		if(change!=0) {
+    			this.fire(GameEvent.BOMB_COUNTER);
+    			this.fire(GameEvent.FIELDS);
+    			this.endGame();
+    		}
+    	}finally {
+    		this.endMove();
+    	}
+    }
+    
+    /**
+     * This function checks if the game has ended and if yes in which way (see {@link GameEngine#endGame()}).
+     * If the game is lost function stops timer and notifies listeners by {@link GameEvent#LOST}.
+     * If the game is won function stops timer and notifies listeners by {@link GameEvent#WON}.
+     */
+    public void endGame() {
+    	int state=this.engine.endGame();
+    	if(state==GameEngine.LOST) {
+    		this.clock.stop();
+    		this.fire(GameEvent.LOST);
+    	}else if(state==GameEngine.WON) {
+    		this.clock.stop();
+    		this.fire(GameEvent.WON);
+    	}
+    }
+    
+    /**
+     * Adds listener which will be notified about changes in the game.
+     * @param listener - listener to add
+     */
+    public synchronized void addListener(GameListener listener) {
+    	GameListener[] listeners=Arrays.copyOf(this.listeners, this.listeners.length+1);
+    	listeners[listeners.length-1]=listener;
+    	this.listeners=listeners;
+    }
+    
+    /**
+     * Removes listener added by {@link #addListener(GameListener)}.
+     * @param listener - listener to remove
+     */
+    public synchronized void removeListener(GameListener listener) {
+    	for(int i=0; i<this.listeners.length; ++i)
+    		if(this.listeners[i]==listener) {
+    			GameListener[] listeners=new GameListener[this.listeners.length-1];
+    			System.arraycopy(this.listeners, 0, listeners, 0, i);
+    			System.arraycopy(this.listeners, i+1, listeners, i, listeners.length-i);
+    			this.listeners=listeners;
+    			return;
+    		}
+    }
+    
+    /**
+     * Starts a move. Events fired until matching {@link #endMove()} are collected instead of being sent. Moves can be nested, only the outermost one sends events.
+     */
+    private void beginMove() {
+    	this.moveDepth++;
+    }
+    
+    /**
+     * Ends a move and, if it was the outermost one, sends all events collected during it to listeners at once.
+     */
+    private void endMove() {
+    	if(--this.moveDepth==0)
+    		this.flushEvents();
+    }
+    
+    /**
+     * Collects event to be sent when current move ends, or sends it straight away if there is no move.
+     * @param event - kind of change
+     */
+    private void fire(GameEvent event) {
+    	this.pendingEvents|=event.mask();
+    	if(this.moveDepth==0)
+    		this.flushEvents();
+    }
+    
+    /**
+     * Sends all collected events to listeners.
+     */
+    private void flushEvents() {
+    	int events=this.pendingEvents;
+    	this.pendingEvents=0;
+    	if(events!=0)
+    		this.notifyListeners(events);
+    }
+    
+    /**
+     * Sends set of events to every listener.
+     * @param events - bits of events
+     */
+    private void notifyListeners(int events) {
+    	long start=Metrics.ENABLED ? System.nanoTime() : 0;
+    	GameListener[] listeners=this.listeners;
+    	for(int i=0; i<listeners.length; ++i)
+    		listeners[i].gameChanged(events);
+    	if(Metrics.ENABLED) {
+    		Metrics.NOTIFY.recordSince(start);
+    		Metrics.FAN_OUT.record(listeners.length);
+    	}
+    }
+}
@@ -0,0 +1,183 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is append-only journal of games and moves, from which every game can be replayed exactly (see {@link JournalReplay}).
+ * <p>
+ * Journal file starts with magic "MSWJ" and format version and then holds records. First number of every record is a varint whose two lowest bits tell kind of record:
+ * <ul>
+ * <li>reveal (0) and flag (1) - index of field in the rest of the number, then varint of milliseconds since previous move</li>
+ * <li>game (2) - width in the rest of the number, then varints of height and bombs and 8 bytes of seed of bomb placement</li>
+ * <li>layout (3) - number of bombs in the rest of the number, then varints of differences between indices of following bombs; it is written only for boards not placed from seed, like no-guess or pregenerated ones and ones changed by first click policy</li>
+ * </ul>
+ * Records are encoded into memory by the thread which makes moves and written to file in batches by one shared background thread, so moves never wait for disk.
+ * @author Tomek
+ *
+ */
+public class MoveJournal implements Closeable {
+	/** Four bytes which start every journal: "MSWJ". */
+	static final int MAGIC=0x4D53574A;
+	/** Version of format written by this class. */
+	static final int VERSION=1;
+	static final int REVEAL=0, FLAG=1, GAME=2, LAYOUT=3;
+	/** How often collected records are written to file, in milliseconds. */
+	static final long FLUSH_PERIOD=Long.getLong("minesweeper.journal.flush", 200);
+
+	private static final ScheduledThreadPoolExecutor FLUSHER=new ScheduledThreadPoolExecutor(1, runnable -> {
+		Thread thread=new Thread(runnable, "journal-flush");
+		thread.setDaemon(true);
+		return thread;
+	});
+	static {
+		FLUSHER.setRemoveOnCancelPolicy(true);
+	}
+
+	private final FileChannel channel;
+	private final ScheduledFuture<?> flushes;
+	private byte[] pending=new byte[4096];
+	private int pendingSize;
+	private byte[] writing=new byte[4096];
+	private long lastMillis;
+
+	/**
+	 * Opens journal file for appending, creating it with header if it doesn't exist.
+	 * @param file - path of journal
+	 * @throws IOException if file can't be opened or is not a journal
+	 */
+	public MoveJournal(Path file) throws IOException {
+		this.channel=FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if(this.channel.size()==0) {
+			ByteBuffer header=ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION);
+			header.flip();
+			this.channel.write(header);
+		}else {
+			ByteBuffer header=ByteBuffer.allocate(8);
+			this.channel.read(header, 0);
+			if(header.getInt(0)!=MAGIC || header.getInt(4)!=VERSION) {
+				this.channel.close();
+				throw new IOException("File is not a journal of version "+VERSION+": "+file);
+			}
+		}
+		this.channel.position(this.channel.size());
+		this.flushes=FLUSHER.scheduleWithFixedDelay(this::flushQuietly, FLUSH_PERIOD, FLUSH_PERIOD, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Records start of new game. Following moves belong to it.
+	 * @param width - width of field
+	 * @param height - height of field
+	 * @param bombs - number of bombs
+	 * @param seed - seed of generator which places bombs
+	 */
+	public synchronized void startGame(int width, int height, int bombs, long seed) {
+		this.putVarint((long)width<<2|GAME);
+		this.putVarint(height);
+		this.putVarint(bombs);
+		for(int shift=56; shift>=0; shift-=8)
+			this.put((byte)(seed>>>shift));
+		this.lastMillis=0;
+	}
+
+	/**
+	 * Records bombs of the board of current game, for boards which can't be placed again from seed.
+	 * @param board - board with placed bombs
+	 */
+	public synchronized void layout(Board board) {
+		int[] bombs=new int[board.getBombCount()];
+		for(int k=0; k<bombs.length; ++k)
+			bombs[k]=board.getBombField(k);
+		Arrays.sort(bombs);
+		this.putVarint((long)bombs.length<<2|LAYOUT);
+		int previous=0;
+		for(int k=0; k<bombs.length; ++k) {
+			this.putVarint(bombs[k]-previous);
+			previous=bombs[k];
+		}
+	}
+
+	/**
+	 * Records reveal of field.
+	 * @param index - index of field
+	 * @param millis - game time of the move
+	 */
+	public synchronized void reveal(int index, long millis) {
+		this.move(REVEAL, index, millis);
+	}
+
+	/**
+	 * Records flagging or unflagging of field.
+	 * @param index - index of field
+	 * @param millis - game time of the move
+	 */
+	public synchronized void flag(int index, long millis) {
+		this.move(FLAG, index, millis);
+	}
+
+	private void move(int kind, int index, long millis) {
+		this.putVarint((long)index<<2|kind);
+		this.putVarint(Math.max(millis-this.lastMillis, 0));
+		this.lastMillis=millis;
+	}
+
+	/**
+	 * Writes all recorded records to file.
+	 * @throws IOException if writing fails
+	 */
+	public void flush() throws IOException {
+		synchronized(this.channel) {
+			int size;
+			synchronized(this) {
+				byte[] full=this.pending;
+				this.pending=this.writing;
+				this.writing=full;
+				size=this.pendingSize;
+				this.pendingSize=0;
+			}
+			ByteBuffer buffer=ByteBuffer.wrap(this.writing, 0, size);
+			while(buffer.hasRemaining())
+				this.channel.write(buffer);
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			this.flush();
+		}catch(IOException e) {
+			System.err.println("Can't write move journal: "+e);
+		}
+	}
+
+	/**
+	 * Stops background writes, writes remaining records and closes file.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flushes.cancel(false);
+		this.flush();
+		this.channel.close();
+	}
+
+	private void putVarint(long value) {
+		while((value&~0x7FL)!=0) {
+			this.put((byte)(value&0x7F|0x80));
+			value>>>=7;
+		}
+		this.put((byte)value);
+	}
+
+	private void put(byte b) {
+		if(this.pendingSize==this.pending.length)
+			this.pending=Arrays.copyOf(this.pending, this.pendingSize*2);
+		this.pending[this.pendingSize++]=b;
+	}
+}
@@ -0,0 +1,124 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is generator of boards which can be finished from the first click without guessing.
+ * Candidate boards keep bombs off the clicked field and fields around it, and each one is played by {@link Solver} starting from the click. First board which solver finishes is used.
+ * Candidates are generated and checked on all cores at once, by threads shared by all games. As soon as one search finds a board the others are cancelled, and the whole search is cancelled when it runs out of time.
+ * @author Tomek
+ *
+ */
+public class NoGuessGenerator {
+	/** Time for one search in milliseconds used by default, can be set by minesweeper.noguess.budget property. */
+	public static final long DEFAULT_BUDGET=Long.getLong("minesweeper.noguess.budget", 40);
+	/** Number of searches run at once. */
+	static final int SEARCHES=Runtime.getRuntime().availableProcessors();
+
+	private static final AtomicInteger THREADS=new AtomicInteger();
+	private static final ExecutorService WORKERS=Executors.newFixedThreadPool(SEARCHES, runnable -> {
+		Thread thread=new Thread(runnable, "no-guess-"+THREADS.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final ThreadLocal<Solver> CHECKERS=ThreadLocal.withInitial(() -> new Solver(new GameEngine(1, 2, 0, new Random())));
+
+	private final long budgetMillis;
+
+	public NoGuessGenerator() {
+		this(DEFAULT_BUDGET);
+	}
+
+	/**
+	 * @param budgetMillis - longest time one search can take, after it bombs are placed randomly
+	 */
+	public NoGuessGenerator(long budgetMillis) {
+		this.budgetMillis=budgetMillis;
+	}
+
+	/**
+	 * This function searches for no-guess board for game which wasn't started yet and places it's bombs on engine's board.
+	 * Seeds of candidates are drawn from engine's random generator.
+	 * @param engine - engine with board without bombs
+	 * @param x - x position of first clicked field
+	 * @param y - y position of first clicked field
+	 * @return true if bombs were placed, false if no board was found in time and engine has to place them itself
+	 */
+	public boolean generate(GameEngine engine, int x, int y) {
+		int width=engine.getWidth(), height=engine.getHeight(), bombs=engine.getTotalBombs();
+		SplittableRandom seeds=new SplittableRandom(engine.getRandom().nextLong());
+		List<Callable<int[]>> searches=new ArrayList<Callable<int[]>>(SEARCHES);
+		for(int i=0; i<SEARCHES; ++i) {
+			SplittableRandom random=seeds.split();
+			searches.add(() -> search(width, height, bombs, x, y, random));
+		}
+		int[] layout;
+		try {
+			layout=WORKERS.invokeAny(searches, this.budgetMillis, TimeUnit.MILLISECONDS);
+		}catch(TimeoutException | ExecutionException e) {
+			return false;
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		Board board=engine.getBoard();
+		for(int i=0; i<layout.length; ++i)
+			board.setBomb(layout[i]%width, layout[i]/width);
+		return true;
+	}
+
+	/**
+	 * Generates and checks candidates on calling thread until one is solved or thread is interrupted.
+	 * @return indices of fields with bombs of solved board
+	 */
+	private static int[] search(int width, int height, int bombs, int x, int y, SplittableRandom seeds) {
+		Solver solver=CHECKERS.get();
+		GameEngine engine=solver.getEngine();
+		engine.changeMode(width, height, bombs);
+		Random random=new Random();
+		engine.setRandom(random);
+		while(!Thread.currentThread().isInterrupted()) {
+			engine.reset();
+			solver.reset();
+			random.setSeed(seeds.nextLong());
+			engine.placeBombsAround(x, y);
+			engine.calcNeighbours();
+			if(solves(solver, x, y)) {
+				Board board=engine.getBoard();
+				int[] layout=new int[board.getBombCount()];
+				for(int k=0; k<layout.length; ++k)
+					layout[k]=board.getBombField(k);
+				return layout;
+			}
+		}
+		throw new CancellationException();
+	}
+
+	/**
+	 * Reveals clicked field and then every field solver knows to be safe.
+	 * @param solver - solver of engine with bombs placed and nothing revealed
+	 * @return true if all fields without bombs were revealed
+	 */
+	static boolean solves(Solver solver, int x, int y) {
+		GameEngine engine=solver.getEngine();
+		int width=engine.getWidth();
+		engine.revealZeros(x, y);
+		solver.revealed(x, y);
+		for(int field=solver.nextSafe(); field>=0; field=solver.nextSafe()) {
+			engine.revealZeros(field%width, field/width);
+			solver.revealed(field%width, field/width);
+		}
+		return engine.getRevealedCounter()==engine.getWidth()*engine.getHeight()-engine.getBoard().getBombCount();
+	}
+}
@@ -0,0 +1,209 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is board for cooperative game, on which many players reveal and flag fields at the same time from their own threads.
+ * Fields are packed the same way as in {@link Board}, eight of them in one long word, and every change of a field is one compare-and-set of it's word, so no locks are needed.
+ * <p>
+ * Field is revealed by the player whose compare-and-set sets it's revealed flag first, so no field is revealed twice and counters stay exact.
+ * Areas of empty fields are spread by breadth-first search in which only the player who revealed an empty field visits it's neighbours. When areas of two players meet, each of them stops at fields already revealed by the other, and together they reveal the whole area.
+ * Counters are striped adders, so players don't fight over one counter.
+ * <p>
+ * Game is not lost when a player reveals a bomb, it's only counted. Flagged fields are never revealed, also not by spreading areas.
+ * @author Tomek
+ *
+ */
+public class SharedBoard {
+	private static final ThreadLocal<IntQueue> QUEUES=ThreadLocal.withInitial(IntQueue::new);
+
+	private final int width, height;
+	private final int bombs;
+	private final AtomicLongArray words;
+	private final LongAdder revealed=new LongAdder();
+	private final LongAdder exploded=new LongAdder();
+	private final LongAdder flags=new LongAdder();
+
+	/**
+	 * Copies fields of board, which should already have bombs and neighbours counted.
+	 * @param board - board to copy, it's not used later
+	 */
+	public SharedBoard(Board board) {
+		this.width=board.getWidth();
+		this.height=board.getHeight();
+		this.bombs=board.getBombCount();
+		//field i is byte i%8 of word i/8, counted from the lowest
+		ByteBuffer cells=ByteBuffer.allocate((board.size()+7)&~7).order(ByteOrder.LITTLE_ENDIAN);
+		board.write(cells);
+		this.words=new AtomicLongArray(cells.capacity()/8);
+		for(int k=0; k<this.words.length(); ++k)
+			this.words.set(k, cells.getLong(k*8));
+		for(int i=0; i<board.size(); ++i) {
+			int x=i%this.width, y=i/this.width;
+			if(board.getRevealed(x, y) && !board.getBomb(x, y))
+				this.revealed.increment();
+			else if(board.getRevealed(x, y))
+				this.exploded.increment();
+			else if(board.getFlag(x, y))
+				this.flags.increment();
+		}
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public int size() {
+		return this.width*this.height;
+	}
+
+	public int getBombCount() {
+		return this.bombs;
+	}
+
+	/**
+	 * @return packed field at given index
+	 */
+	private int cell(int i) {
+		return (int)(this.words.get(i>>>3)>>>((i&7)<<3))&0xFF;
+	}
+
+	/**
+	 * Sets revealed flag of field at given index in one compare-and-set, unless the field is revealed or flagged. It retries when other fields of the same word change in the meantime.
+	 * @param i - index of field
+	 * @return field before the change, the change was made only if it's neither revealed nor flagged
+	 */
+	private int tryReveal(int i) {
+		int word=i>>>3;
+		int shift=(i&7)<<3;
+		while(true) {
+			long old=this.words.get(word);
+			int cell=(int)(old>>>shift)&0xFF;
+			if((cell&(Board.REVEALED|Board.FLAGGED))!=0)
+				return cell;
+			if(this.words.compareAndSet(word, old, old|(long)Board.REVEALED<<shift))
+				return cell;
+		}
+	}
+
+	public boolean getBomb(int x, int y) {
+		return (this.cell(y*this.width+x)&Board.BOMB)!=0;
+	}
+
+	public boolean getRevealed(int x, int y) {
+		return (this.cell(y*this.width+x)&Board.REVEALED)!=0;
+	}
+
+	public boolean getFlag(int x, int y) {
+		return (this.cell(y*this.width+x)&Board.FLAGGED)!=0;
+	}
+
+	public int getNeighbours(int x, int y) {
+		return this.cell(y*this.width+x)&Board.NEIGHBOURS_MASK;
+	}
+
+	/**
+	 * This function reveals field and, if it has no neighbouring bombs, whole area of such fields together with the numbered fields bordering it.
+	 * It can be called by many threads at once, also for overlapping areas.
+	 * @param x - x position of field
+	 * @param y - y position of field
+	 * @return number of fields revealed by this call, -1 if it revealed a bomb
+	 */
+	public int reveal(int x, int y) {
+		int i=y*this.width+x;
+		int cell=this.tryReveal(i);
+		if((cell&(Board.REVEALED|Board.FLAGGED))!=0)
+			return 0;
+		if((cell&Board.BOMB)!=0) {
+			this.exploded.increment();
+			return -1;
+		}
+		int revealed=1;
+		if((cell&Board.NEIGHBOURS_MASK)==0) {
+			IntQueue queue=QUEUES.get();
+			queue.add(i);
+			while(!queue.isEmpty())
+				revealed+=this.revealNeighbours(queue.poll(), queue);
+		}
+		this.revealed.add(revealed);
+		return revealed;
+	}
+
+	/**
+	 * Reveals hidden neighbours of empty field and queues those of them which are empty too.
+	 * @return number of revealed fields
+	 */
+	private int revealNeighbours(int i, IntQueue queue) {
+		int x=i%this.width, y=i/this.width;
+		int revealed=0;
+		for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+			for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx) {
+				int n=ny*this.width+nx;
+				int cell=this.tryReveal(n);
+				if((cell&(Board.REVEALED|Board.FLAGGED))!=0)
+					continue;
+				revealed++;
+				if((cell&Board.NEIGHBOURS_MASK)==0)
+					queue.add(n);
+			}
+		return revealed;
+	}
+
+	/**
+	 * This function flags hidden field or removes it's flag.
+	 * @param x - x position of field
+	 * @param y - y position of field
+	 * @return 1 if flag was added, -1 if it was removed and 0 if field is revealed
+	 */
+	public int changeState(int x, int y) {
+		int i=y*this.width+x;
+		int word=i>>>3;
+		int shift=(i&7)<<3;
+		while(true) {
+			long old=this.words.get(word);
+			int cell=(int)(old>>>shift)&0xFF;
+			if((cell&Board.REVEALED)!=0)
+				return 0;
+			if(this.words.compareAndSet(word, old, old^(long)Board.FLAGGED<<shift)) {
+				int change=(cell&Board.FLAGGED)!=0 ? -1 : 1;
+				this.flags.add(change);
+				return change;
+			}
+		}
+	}
+
+	/**
+	 * @return number of revealed fields without bombs
+	 */
+	public long getRevealedCounter() {
+		return this.revealed.sum();
+	}
+
+	/**
+	 * @return number of revealed bombs
+	 */
+	public long getExplodedCounter() {
+		return this.exploded.sum();
+	}
+
+	/**
+	 * @return number of flagged fields
+	 */
+	public long getFlagCounter() {
+		return this.flags.sum();
+	}
+
+	/**
+	 * @return true if every field without bomb is revealed
+	 */
+	public boolean isCleared() {
+		return this.revealed.sum()==this.size()-this.bombs;
+	}
+}
@@ -0,0 +1,208 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is command line program which plays many games of minesweeper on all cores and prints statistics for every game mode.
+ * Games are split into tasks of a work-stealing fork-join pool. Every task gets it's own random generator split from the parent's one, so results depend only on the seed and not on number of threads.
+ * With -noguess every board is made by {@link NoGuessGenerator}, which shows how often it falls back to random board.
+ * Every worker thread reuses one {@link GameEngine} with it's {@link Solver}, and results are summed in low-contention adders.
+ * <p>
+ * Usage: java Simulator [-games N] [-threads N] [-seed N] [-noguess] [mode ...] where mode is beginner, intermediate, expert or WIDTHxHEIGHTxBOMBS.
+ * @author Tomek
+ *
+ */
+public class Simulator {
+	/** Number of games played by one task before it stops splitting. */
+	static final int GAMES_PER_TASK=256;
+	/** Number of buckets of histogram of revealed fields at the end of lost games. */
+	static final int HISTOGRAM_BUCKETS=10;
+
+	private static final ThreadLocal<Solver> PLAYERS=ThreadLocal.withInitial(() -> new Solver(new GameEngine(1, 2, 0, new Random())));
+
+	/**
+	 * Settings of one simulated game mode together with it's results.
+	 */
+	static class Mode {
+		final String name;
+		final int width, height, bombs;
+		NoGuessGenerator generator;
+		final LongAdder won=new LongAdder();
+		final LongAdder lost=new LongAdder();
+		final LongAdder moves=new LongAdder();
+		final LongAdder[] revealedAtLoss=new LongAdder[HISTOGRAM_BUCKETS];
+
+		Mode(String name, int width, int height, int bombs) {
+			this.name=name;
+			this.width=width;
+			this.height=height;
+			this.bombs=bombs;
+			for(int i=0; i<HISTOGRAM_BUCKETS; ++i)
+				this.revealedAtLoss[i]=new LongAdder();
+		}
+	}
+
+	/**
+	 * Task which plays given number of games of one mode, splitting itself in halves while it has more than {@link Simulator#GAMES_PER_TASK} games.
+	 */
+	static class Games extends RecursiveAction {
+		private static final long serialVersionUID = 1;
+		private final Mode mode;
+		private final long games;
+		private final SplittableRandom random;
+
+		Games(Mode mode, long games, SplittableRandom random) {
+			this.mode=mode;
+			this.games=games;
+			this.random=random;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.games>GAMES_PER_TASK) {
+				long half=this.games/2;
+				SplittableRandom other=this.random.split();
+				invokeAll(new Games(this.mode, half, this.random), new Games(this.mode, this.games-half, other));
+				return;
+			}
+			Solver solver=PLAYERS.get();
+			GameEngine engine=solver.getEngine();
+			engine.changeMode(this.mode.width, this.mode.height, this.mode.bombs);
+			engine.setRandom(new Random(this.random.nextLong()));
+			engine.setNoGuess(this.mode.generator);
+			long won=0, moves=0;
+			for(long g=0; g<this.games; ++g) {
+				engine.reset();
+				solver.reset();
+				moves+=play(solver, this.random);
+				if(engine.getState()==GameEngine.WON)
+					won++;
+				else {
+					int safe=this.mode.width*this.mode.height-this.mode.bombs;
+					int bucket=(int)((long)(engine.getRevealedCounter()-1)*HISTOGRAM_BUCKETS/Math.max(safe, 1));
+					this.mode.revealedAtLoss[Math.min(Math.max(bucket, 0), HISTOGRAM_BUCKETS-1)].increment();
+				}
+			}
+			this.mode.won.add(won);
+			this.mode.lost.add(this.games-won);
+			this.mode.moves.add(moves);
+		}
+	}
+
+	/**
+	 * Plays one game until it's won or lost. Player makes moves which {@link Solver} knows are right and reveals random hidden field when there is no such move.
+	 * @param solver - solver of engine with new game
+	 * @param random - source of random guesses
+	 * @return number of moves made
+	 */
+	static int play(Solver solver, SplittableRandom random) {
+		GameEngine engine=solver.getEngine();
+		Board board=engine.getBoard();
+		int width=engine.getWidth(), height=engine.getHeight();
+		int moves=0;
+		while(engine.getState()==GameEngine.RUNNING) {
+			if(engine.getRevealedCounter()==width*height-engine.getTotalBombs()) {
+				for(int i=0; i<board.size(); ++i)
+					if(!board.getRevealed(i%width, i/width) && !board.getFlag(i%width, i/width)) {
+						engine.changeState(i%width, i/width);
+						moves++;
+					}
+				break;
+			}
+			int field=solver.nextSafe();
+			if(field<0) {
+				int mine=solver.nextMine();
+				if(mine>=0) {
+					engine.changeState(mine%width, mine/width);
+					moves++;
+					continue;
+				}
+				field=guess(solver, board, random);
+			}
+			engine.revealTile(field%width, field/width);
+			solver.revealed(field%width, field/width);
+			moves++;
+		}
+		return moves;
+	}
+
+	/**
+	 * Picks random hidden field which is not known to have a bomb. After a few missed tries it takes first such field after random one.
+	 * @return index of the field
+	 */
+	private static int guess(Solver solver, Board board, SplittableRandom random) {
+		int width=board.getWidth();
+		for(int tries=0; ; ++tries) {
+			int i=random.nextInt(board.size());
+			for(int j=0; j<board.size() && tries>=8; ++j, i=(i+1)%board.size())
+				if(!board.getRevealed(i%width, i/width) && !solver.isMine(i))
+					return i;
+			if(!board.getRevealed(i%width, i/width) && !solver.isMine(i))
+				return i;
+		}
+	}
+
+	/**
+	 * @param name - name of difficulty or WIDTHxHEIGHTxBOMBS
+	 * @return mode with these settings
+	 */
+	static Mode parseMode(String name) {
+		for(Difficulty difficulty : Difficulty.values())
+			if(difficulty.getLabel().equalsIgnoreCase(name))
+				return new Mode(difficulty.getLabel(), difficulty.getWidth(), difficulty.getHeight(), difficulty.getBombs());
+		String[] parts=name.split("x");
+		if(parts.length!=3)
+			throw new IllegalArgumentException("Unknown mode: "+name);
+		return new Mode(name, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+	}
+
+	public static void main(String[] args) {
+		long games=100000;
+		int threads=Runtime.getRuntime().availableProcessors();
+		long seed=System.nanoTime();
+		boolean noGuess=false;
+		List<Mode> modes=new ArrayList<Mode>();
+		for(int i=0; i<args.length; ++i) {
+			if(args[i].equals("-games"))
+				games=Long.parseLong(args[++i]);
+			else if(args[i].equals("-threads"))
+				threads=Integer.parseInt(args[++i]);
+			else if(args[i].equals("-seed"))
+				seed=Long.parseLong(args[++i]);
+			else if(args[i].equals("-noguess"))
+				noGuess=true;
+			else
+				modes.add(parseMode(args[i]));
+		}
+		if(modes.isEmpty())
+			for(Difficulty difficulty : Difficulty.values())
+				modes.add(parseMode(difficulty.getLabel()));
+
+		if(noGuess)
+			for(Mode mode : modes)
+				mode.generator=new NoGuessGenerator();
+
+		System.out.println("games="+games+" threads="+threads+" seed="+seed+(noGuess ? " noguess" : ""));
+		ForkJoinPool pool=new ForkJoinPool(threads);
+		SplittableRandom random=new SplittableRandom(seed);
+		for(Mode mode : modes) {
+			long start=System.nanoTime();
+			pool.invoke(new Games(mode, games, random.split()));
+			double seconds=(System.nanoTime()-start)/1e9;
+			long won=mode.won.sum();
+			System.out.printf("%s %dx%d/%d: %.0f games/s, won %d (%.2f%%), %.1f moves/game%n", mode.name, mode.width, mode.height, mode.bombs,
+					games/seconds, won, 100.0*won/games, (double)mode.moves.sum()/games);
+			StringBuilder histogram=new StringBuilder("  revealed at loss:");
+			for(int i=0; i<HISTOGRAM_BUCKETS; ++i)
+				histogram.append(String.format(" %d-%d%%:%d", i*100/HISTOGRAM_BUCKETS, (i+1)*100/HISTOGRAM_BUCKETS, mode.revealedAtLoss[i].sum()));
+			System.out.println(histogram);
+		}
+		pool.shutdown();
+	}
+}
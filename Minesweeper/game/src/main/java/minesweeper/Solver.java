@@ -0,0 +1,281 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * This is solver which finds fields that are certainly safe and fields that certainly hide a bomb, using only what is revealed on the board.
+ * It is updated after every move with the clicked field and looks only at fields revealed by that move and at their surroundings, so every move costs time proportional to the number of fields it changed, not to the size of the board.
+ * <p>
+ * Every revealed number is a constraint: it's hidden neighbours, not yet known as safe or bomb, hold given number of bombs. Such set of neighbours is kept as bit mask of a 7x7 window, so two constraints at most two fields apart can be compared with few bit operations.
+ * Solver uses two rules: if constraint has no bombs left or only bombs left, all it's fields are decided; if one constraint's fields are subset of another's, the difference holds the difference of their bombs.
+ * Every newly decided field puts numbers around it back into the work queue.
+ * <p>
+ * Reset takes constant time, in the same way as reset of {@link Board}: knowledge is split into blocks of 64 fields stamped with generation in which they were last cleared, and block with older stamp is cleared when one of it's fields is first changed.
+ * @author Tomek
+ *
+ */
+public class Solver {
+	private static final byte SEEN=1, SAFE=2, MINE=4, QUEUED=8;
+
+	private final GameEngine engine;
+	private int width, height;
+	private byte[] knowledge;
+	/** Generation in which every block of knowledge was last cleared. */
+	private int[] stamps;
+	private int generation;
+	private IntQueue work=new IntQueue();
+	private IntQueue safe=new IntQueue();
+	private IntQueue mines=new IntQueue();
+	private IntQueue seen=new IntQueue();
+
+	public Solver(GameEngine engine) {
+		this.engine=engine;
+		this.reset();
+	}
+
+	public GameEngine getEngine() {
+		return this.engine;
+	}
+
+	/**
+	 * Forgets everything solver knew. It must be called when engine starts new game.
+	 */
+	public void reset() {
+		this.width=this.engine.getWidth();
+		this.height=this.engine.getHeight();
+		int size=this.width*this.height;
+		//arrays only grow, so switching between game modes doesn't allocate
+		if(this.knowledge==null || this.knowledge.length<size) {
+			this.knowledge=new byte[size];
+			this.stamps=new int[(size+(1<<Board.BLOCK_SHIFT)-1)>>>Board.BLOCK_SHIFT];
+			this.generation=0;
+		}else if(++this.generation==0) { //stamps wrapped around, so they can't be trusted
+			Arrays.fill(this.knowledge, (byte)0);
+			Arrays.fill(this.stamps, 0);
+		}
+		this.work.clear();
+		this.safe.clear();
+		this.mines.clear();
+	}
+
+	/**
+	 * @return what is known about field, nothing if it's block was not cleared since last reset
+	 */
+	private int known(int i) {
+		return this.stamps[i>>>Board.BLOCK_SHIFT]==this.generation ? this.knowledge[i] : 0;
+	}
+
+	private void setKnown(int i, byte bits) {
+		this.touch(i);
+		this.knowledge[i]|=bits;
+	}
+
+	private void clearKnown(int i, byte bits) {
+		this.touch(i);
+		this.knowledge[i]&=~bits;
+	}
+
+	/**
+	 * Clears block of field at given index if it was not cleared since last reset.
+	 */
+	private void touch(int i) {
+		int block=i>>>Board.BLOCK_SHIFT;
+		if(this.stamps[block]==this.generation)
+			return;
+		Arrays.fill(this.knowledge, block<<Board.BLOCK_SHIFT, Math.min((block+1)<<Board.BLOCK_SHIFT, this.knowledge.length), (byte)0);
+		this.stamps[block]=this.generation;
+	}
+
+	/**
+	 * Tells solver that field was clicked. Solver walks over fields revealed by the click (they are all connected to it through empty fields) and queues constraints they touch.
+	 * @param x - x position of clicked field
+	 * @param y - y position of clicked field
+	 */
+	public void revealed(int x, int y) {
+		Board board=this.engine.getBoard();
+		int start=board.index(x, y);
+		if(!board.getRevealed(x, y) || (this.known(start)&SEEN)!=0)
+			return;
+		this.setKnown(start, SEEN);
+		this.seen.clear();
+		this.seen.add(start);
+		while(!this.seen.isEmpty()) {
+			int i=this.seen.poll();
+			int cx=i%this.width, cy=i/this.width;
+			if(board.getBomb(cx, cy))
+				continue;
+			this.queue(i);
+			for(int nx=Math.max(cx-1, 0); nx<=Math.min(cx+1, this.width-1); ++nx)
+				for(int ny=Math.max(cy-1, 0); ny<=Math.min(cy+1, this.height-1); ++ny) {
+					int n=board.index(nx, ny);
+					if(!board.getRevealed(nx, ny))
+						continue;
+					if(board.getNeighbours(cx, cy)==0 && (this.known(n)&SEEN)==0) {
+						this.setKnown(n, SEEN);
+						this.seen.add(n);
+					}else {
+						this.queue(n);
+					}
+				}
+		}
+	}
+
+	/**
+	 * @return index of hidden field which certainly has no bomb, or -1 if solver doesn't know any
+	 */
+	public int nextSafe() {
+		this.solve();
+		Board board=this.engine.getBoard();
+		while(!this.safe.isEmpty()) {
+			int i=this.safe.poll();
+			if(!board.getRevealed(i%this.width, i/this.width))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return index of field which certainly has a bomb and is not flagged, or -1 if solver doesn't know any
+	 */
+	public int nextMine() {
+		this.solve();
+		Board board=this.engine.getBoard();
+		while(!this.mines.isEmpty()) {
+			int i=this.mines.poll();
+			if(!board.getFlag(i%this.width, i/this.width))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return true if field certainly has no bomb
+	 */
+	public boolean isSafe(int index) {
+		return (this.known(index)&SAFE)!=0;
+	}
+
+	/**
+	 * @return true if field certainly has a bomb
+	 */
+	public boolean isMine(int index) {
+		return (this.known(index)&MINE)!=0;
+	}
+
+	/**
+	 * Applies both rules to queued constraints until no constraint is queued.
+	 */
+	public void solve() {
+		while(!this.work.isEmpty()) {
+			int i=this.work.poll();
+			this.clearKnown(i, QUEUED);
+			this.check(i);
+		}
+	}
+
+	/**
+	 * Queues revealed numbered field for checking.
+	 */
+	private void queue(int i) {
+		if((this.known(i)&QUEUED)!=0)
+			return;
+		Board board=this.engine.getBoard();
+		int x=i%this.width, y=i/this.width;
+		if(board.getBomb(x, y) || board.getNeighbours(x, y)==0)
+			return;
+		this.setKnown(i, QUEUED);
+		this.work.add(i);
+	}
+
+	/**
+	 * Checks constraint of revealed field against both rules.
+	 */
+	private void check(int i) {
+		int x=i%this.width, y=i/this.width;
+		long fields=this.undecided(x, y, x, y);
+		if(fields==0)
+			return;
+		int bombs=this.bombsLeft(x, y);
+		if(this.decide(x, y, fields, bombs))
+			return;
+		Board board=this.engine.getBoard();
+		for(int ox=Math.max(x-2, 0); ox<=Math.min(x+2, this.width-1); ++ox)
+			for(int oy=Math.max(y-2, 0); oy<=Math.min(y+2, this.height-1); ++oy) {
+				if((ox==x && oy==y) || !board.getRevealed(ox, oy) || board.getBomb(ox, oy) || board.getNeighbours(ox, oy)==0)
+					continue;
+				long other=this.undecided(ox, oy, x, y);
+				if(other==0 || other==fields)
+					continue;
+				int otherBombs=this.bombsLeft(ox, oy);
+				if((fields&~other)==0) //fields decided here are not around (x, y), so it's constraint stays the same and it must be compared with the rest too
+					this.decide(x, y, other&~fields, otherBombs-bombs);
+				else if((other&~fields)==0) {
+					if(this.decide(x, y, fields&~other, bombs-otherBombs))
+						return;
+				}
+			}
+	}
+
+	/**
+	 * Marks fields of set as safe if it holds no bombs or as bombs if it holds only bombs.
+	 * @param x - x position of middle of the window in which set is given
+	 * @param y - y position of middle of the window in which set is given
+	 * @param fields - set of fields as bits of 7x7 window
+	 * @param bombs - number of bombs in the set
+	 * @return true if something was decided
+	 */
+	private boolean decide(int x, int y, long fields, int bombs) {
+		if(fields==0 || (bombs!=0 && bombs!=Long.bitCount(fields)))
+			return false;
+		byte mark=bombs==0 ? SAFE : MINE;
+		for(long bits=fields; bits!=0; bits&=bits-1) {
+			int bit=Long.numberOfTrailingZeros(bits);
+			this.mark(x+bit/7-3, y+bit%7-3, mark);
+		}
+		return true;
+	}
+
+	/**
+	 * Remembers that field is safe or has a bomb and queues numbers around it, which now have one undecided field less.
+	 */
+	private void mark(int x, int y, byte mark) {
+		int i=x+y*this.width;
+		if((this.known(i)&(SAFE|MINE))!=0)
+			return;
+		this.setKnown(i, mark);
+		if(mark==SAFE)
+			this.safe.add(i);
+		else
+			this.mines.add(i);
+		Board board=this.engine.getBoard();
+		for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx)
+			for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+				if(board.getRevealed(nx, ny))
+					this.queue(nx+ny*this.width);
+	}
+
+	/**
+	 * @return hidden neighbours of field (x, y) which are neither known as safe nor as bombs, as bits of 7x7 window centered at (cx, cy)
+	 */
+	private long undecided(int x, int y, int cx, int cy) {
+		Board board=this.engine.getBoard();
+		long fields=0;
+		for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx)
+			for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+				if(!board.getRevealed(nx, ny) && (this.known(nx+ny*this.width)&(SAFE|MINE))==0)
+					fields|=1L<<((nx-cx+3)*7+ny-cy+3);
+		return fields;
+	}
+
+	/**
+	 * @return number of bombs around field (x, y) which are not yet known
+	 */
+	private int bombsLeft(int x, int y) {
+		int bombs=this.engine.getBoard().getNeighbours(x, y);
+		for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, this.width-1); ++nx)
+			for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, this.height-1); ++ny)
+				if((this.known(nx+ny*this.width)&MINE)!=0)
+					bombs--;
+		return bombs;
+	}
+}
@@ -0,0 +1,109 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * This class passes game events from model to user interface on Swing's event dispatch thread.
+ * Events can come from any thread (for example timer ticks come from clock's thread). They are merged into one set and delivered at most once per frame,
+ * so counters, timer and fields changed between two frames are redrawn in single pass. Frame timer runs only while events are waiting: it's started by the first event after delivery and fires once.
+ * It counts how many notifications were received, how many were merged into already waiting ones and how many were delivered. When metrics are enabled these counters are also shown with other metrics (see {@link Metrics}).
+ * @author Tomek
+ *
+ */
+public class UiUpdateQueue implements GameListener {
+	private final GameListener target;
+	private final AtomicInteger pending=new AtomicInteger();
+	private final AtomicBoolean scheduled=new AtomicBoolean();
+	private final Timer frameTimer;
+	private final LongAdder received=new LongAdder();
+	private final LongAdder merged=new LongAdder();
+	private final LongAdder delivered=new LongAdder();
+
+	/**
+	 * @param target - listener which will receive events on event dispatch thread
+	 * @param framesPerSecond - how many times per second waiting events are delivered, or 0 to deliver them as soon as event dispatch thread is free
+	 */
+	public UiUpdateQueue(GameListener target, int framesPerSecond) {
+		this.target=target;
+		if(framesPerSecond>0) {
+			this.frameTimer=new Timer(1000/framesPerSecond, e -> this.deliver());
+			this.frameTimer.setRepeats(false);
+		}else {
+			this.frameTimer=null;
+		}
+		if(Metrics.ENABLED)
+			Metrics.watch(this);
+	}
+
+	/**
+	 * Adds events to the set waiting for next frame and schedules delivery if it's not scheduled yet. Can be called from any thread.
+	 */
+	@Override
+	public void gameChanged(int events) {
+		this.received.increment();
+		if(this.pending.getAndAccumulate(events, (waiting, added) -> waiting|added)!=0)
+			this.merged.increment();
+		if(this.scheduled.compareAndSet(false, true)) {
+			if(this.frameTimer!=null)
+				this.frameTimer.start();
+			else
+				SwingUtilities.invokeLater(this::deliver);
+		}
+	}
+
+	/**
+	 * Delivers all waiting events to target at once. Called on event dispatch thread.
+	 * Delivery is marked as not scheduled before events are taken, so events added meanwhile schedule the next one.
+	 */
+	private void deliver() {
+		this.scheduled.set(false);
+		int events=this.pending.getAndSet(0);
+		if(events==0)
+			return;
+		this.delivered.increment();
+		this.target.gameChanged(events);
+	}
+
+	/**
+	 * Stops frame timer and removes counters from metrics. Events received afterwards are not delivered in frame mode.
+	 */
+	public void stop() {
+		if(this.frameTimer!=null) {
+			this.frameTimer.stop();
+			this.scheduled.set(true); //timer is never started again
+		}
+		if(Metrics.ENABLED)
+			Metrics.unwatch(this);
+	}
+
+	/**
+	 * @return number of notifications received from model
+	 */
+	public long getReceivedCount() {
+		return this.received.sum();
+	}
+
+	/**
+	 * @return number of notifications which were merged into events already waiting for delivery
+	 */
+	public long getMergedCount() {
+		return this.merged.sum();
+	}
+
+	/**
+	 * @return number of times events were delivered to target
+	 */
+	public long getDeliveredCount() {
+		return this.delivered.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "received="+this.getReceivedCount()+" merged="+this.getMergedCount()+" delivered="+this.getDeliveredCount();
+	}
+}
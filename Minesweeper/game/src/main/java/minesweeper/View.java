@@ -0,0 +1,347 @@
+package minesweeper;
+
+import java.awt.*;
+
+import java.awt.event.ActionListener;
+import javax.swing.*;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+
+/**
+ * View for minesweeper. It's function is to display game to user.
+ * @author Tomek
+ *
+ */
+public class View extends JFrame implements GameListener{
+	private static final long serialVersionUID = 1;
+	private Model model;
+	
+	String[] options = {"Beginner", "Intermediate", "Expert", "Custom", "Infinite"};
+	private JComboBox<String> menu = new JComboBox<String>(options);
+	private JButton reset = new JButton("Reset");
+	private JButton hint = new JButton("Hint");
+	private JCheckBox noGuess = new JCheckBox("No guess");
+	private JCheckBox probabilities = new JCheckBox("Probabilities");
+	private JButton save = new JButton("Save");
+	private JButton load = new JButton("Load");
+	private JLabel bombsLeft = new JLabel("Bombs left:");
+	private JLabel time = new JLabel("Time:");
+	private JTextField bombsCounter = new JTextField(3);
+	private JTextField timer = new JTextField(5);
+	JLabel width = new JLabel("Width");
+	JLabel height = new JLabel("Height") ;
+	JLabel bombs = new JLabel("Bombs");
+	JButton okButton = new JButton("OK");
+	JTextField widthInput = new JTextField(3);
+	JTextField heightInput = new JTextField(3);
+	JTextField bombsInput = new JTextField(3);
+	
+	
+	private BoardPanel boardPanel;
+	private JScrollPane gamePane;
+	private JPanel menuPanel;
+	private JFrame customMenuFrame;
+	private JPanel customMenuPanel;
+	
+	
+	
+	ActionListener buttonListener;
+	
+	/** Biggest area taken by gameboard before it becomes scrollable. */
+	static final Dimension MAX_BOARD_SIZE = new Dimension(1350, 810);
+	/** How many times per second changes of the game are drawn, 0 draws them as soon as possible. Can be set by minesweeper.fps property. */
+	static final int FRAME_RATE = Integer.getInteger("minesweeper.fps", 60);
+	
+	private UiUpdateQueue updates;
+	
+	View(Model model){
+		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		this.setResizable(false);
+		this.model=model;
+		this.updates=new UiUpdateQueue(this, FRAME_RATE);
+		this.model.addListener(this.updates);
+		this.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				View.this.model.closeInfinite(); //chunks written to disk are deleted before program exits
+			}
+		});
+		
+		menuPanel = new JPanel();
+		menuPanel.add(menu);
+		menuPanel.add(bombsLeft);
+		menuPanel.add(bombsCounter);
+		menuPanel.add(reset);
+		menuPanel.add(hint);
+		menuPanel.add(noGuess);
+		menuPanel.add(probabilities);
+		menuPanel.add(save);
+		menuPanel.add(load);
+		menuPanel.add(time);
+		menuPanel.add(timer);
+		boardPanel = new BoardPanel(model);
+		gamePane = new JScrollPane(boardPanel);
+		gamePane.setBorder(null);
+		this.add(menuPanel, BorderLayout.NORTH);
+		this.add(gamePane, BorderLayout.SOUTH);
+		this.changeMode();
+	}
+	
+	/**
+	 * This function is usually called when model parameters have been changed. It resizes gameboard to new size of model's board and updates counters, effectivly showing new game with new parameters.
+	 * Boards bigger than {@link #MAX_BOARD_SIZE} are shown in scrollable area.
+	 * In infinite mode counter shows number of revealed fields and buttons which don't work in this mode (hint, no guess, probabilities and save) are disabled.
+	 */
+	public void changeMode() {
+		this.boardPanel.boardChanged();
+		Dimension size=this.boardPanel.getPreferredSize();
+		this.gamePane.setPreferredSize(new Dimension(Math.min(size.width, MAX_BOARD_SIZE.width), Math.min(size.height, MAX_BOARD_SIZE.height)));
+		boolean bounded=model.getInfiniteBoard()==null;
+		this.bombsLeft.setText(bounded ? "Bombs left:" : "Revealed:");
+		this.hint.setEnabled(bounded);
+		this.noGuess.setEnabled(bounded);
+		this.probabilities.setEnabled(bounded);
+		this.save.setEnabled(bounded);
+		this.setBombCounter();
+		this.timer.setText(String.valueOf(model.getTimer()));
+		this.model.getBoard().clearChanges();
+		pack();
+		this.setVisible(true);
+	}
+	
+	
+	/**
+	 * This function will create and show to user jframe with fields for width, height and number of bombs input.
+	 * Ok button has actionListener.
+	 * @param listenForCustom - action listener for ok button
+	 */
+	public void showCustomMenu(ActionListener listenForCustom) {		
+		okButton.addActionListener(listenForCustom);
+		
+		this.customMenuPanel = new JPanel();
+		this.customMenuFrame = new JFrame();
+		this.customMenuFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		
+		customMenuPanel.add(width);
+		customMenuPanel.add(widthInput);
+		
+		customMenuPanel.add(height);
+		customMenuPanel.add(heightInput);
+		
+		customMenuPanel.add(bombs);
+		customMenuPanel.add(bombsInput);
+		
+		customMenuPanel.add(okButton);
+		
+		customMenuFrame.add(customMenuPanel);
+		
+		customMenuFrame.pack();
+		customMenuFrame.setVisible(true);		
+	}
+	
+	/**
+	 * This function is used to dispose custom menu.
+	 */
+	public void disposeCustomMenu() {
+		this.customMenuFrame.dispatchEvent(new WindowEvent(customMenuFrame, WindowEvent.WINDOW_CLOSING));
+	}
+	
+	
+	
+	/**
+	 * This function is called on event dispatch thread with all events model has sent since last frame (see {@link UiUpdateQueue}). Based on recieved events it calls different functions, at most once each.
+	 * MODE_CHANGED - changeMode()
+	 * FIELDS - redrawBoard()
+	 * BOMB_COUNTER - setBombCounter()
+	 * TIMER - setTimer()
+	 * RESET - resetReset()
+	 * WON - setWon()
+	 * LOST - setLost()
+	 * Probabilities are calculated again after MODE_CHANGED, FIELDS or RESET if they are shown.
+	 */
+	@Override
+	public void gameChanged(int events){
+		if(GameEvent.MODE_CHANGED.in(events))
+			this.changeMode();
+		if(GameEvent.FIELDS.in(events))
+			this.redrawBoard();
+		if(GameEvent.BOMB_COUNTER.in(events))
+			this.setBombCounter();
+		if(GameEvent.TIMER.in(events))
+			this.setTimer();
+		if(GameEvent.RESET.in(events))
+			this.resetReset();
+		if(GameEvent.WON.in(events))
+			this.setWon();
+		if(GameEvent.LOST.in(events))
+			this.setLost();
+		if(this.probabilities.isSelected() && (events&(GameEvent.MODE_CHANGED.mask()|GameEvent.FIELDS.mask()|GameEvent.RESET.mask()))!=0)
+			this.showProbabilities(true);
+	}
+	
+	/**
+	 * This function shows or hides chance of bomb on every hidden field (see {@link MineProbabilities}).
+	 * @param show - true to calculate probabilities and show them
+	 */
+	public void showProbabilities(boolean show) {
+		this.boardPanel.setProbabilities(show && this.model.getInfiniteBoard()==null ? this.model.getProbabilities() : null);
+	}
+	
+	/**
+	 * Set value of bombCOunter field to current one obtained from model, or to number of revealed fields in infinite mode.
+	 */
+	public void setBombCounter() {
+		InfiniteBoard infinite=model.getInfiniteBoard();
+		this.bombsCounter.setText(String.valueOf(infinite==null ? model.getBombCounter() : infinite.getRevealedCounter()));
+	}
+	/**
+	 * Set value of timer field to current one obtained from model.
+	 */
+	public void setTimer() {
+		this.timer.setText(String.valueOf(model.getTimer()));
+	}
+	
+	/**
+	 * Sets background of reset button to yellow and sets it's text to "You've won!"
+	 */
+	public void setWon() {
+		this.reset.setBackground(Color.YELLOW);
+		this.reset.setText("You've won!");
+	}
+	
+	/**
+	 * Sets background of reset button to red and sets it's text to "You've lost!"
+	 */
+	public void setLost() {
+		this.reset.setBackground(Color.RED);
+		this.reset.setText("You've lost!");
+	}
+	
+	/**
+	 * Sets background of reset button to null and sets it's text to Reset.
+	 */
+	public void resetReset() {
+		this.reset.setBackground(null);
+		this.reset.setText("Reset");
+	}
+	
+	/**
+	 * This function redraws gamefield. Only fields changed since last redraw are repainted (see {@link BoardPanel#redrawChanged()}).
+	 */
+	void redrawBoard()	{
+		long start=Metrics.ENABLED ? System.nanoTime() : 0;
+		this.boardPanel.redrawChanged();
+		if(Metrics.ENABLED)
+			Metrics.REDRAW_BOARD.recordSince(start);
+	}
+	
+	/**
+	 * Add ActionListener to hint button.
+	 * @param listenForHintButton - ActionListener added to Hint button.
+	 */
+	void addActionHintListener(ActionListener listenForHintButton) {
+		hint.addActionListener(listenForHintButton);
+	}
+	
+	/**
+	 * Add ActionListener to save button.
+	 * @param listenForSaveButton - ActionListener added to Save button.
+	 */
+	void addActionSaveListener(ActionListener listenForSaveButton) {
+		save.addActionListener(listenForSaveButton);
+	}
+	
+	/**
+	 * Add ActionListener to load button.
+	 * @param listenForLoadButton - ActionListener added to Load button.
+	 */
+	void addActionLoadListener(ActionListener listenForLoadButton) {
+		load.addActionListener(listenForLoadButton);
+	}
+	
+	/**
+	 * This function asks user for file to save game to or load game from.
+	 * @param saving - true if game will be saved, false if it will be loaded
+	 * @return chosen file or null if user cancelled
+	 */
+	public File chooseGameFile(boolean saving) {
+		JFileChooser chooser = new JFileChooser();
+		int result = saving ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+		return result==JFileChooser.APPROVE_OPTION ? chooser.getSelectedFile() : null;
+	}
+	
+	/**
+	 * This function shows error message in dialog.
+	 * @param message - text of the message
+	 */
+	public void showError(String message) {
+		JOptionPane.showMessageDialog(this, message, "Minesweeper", JOptionPane.ERROR_MESSAGE);
+	}
+	
+	/**
+	 * Add ActionListener to probabilities check box.
+	 * @param listenForProbabilitiesBox - ActionListener added to Probabilities check box.
+	 */
+	void addActionProbabilitiesListener(ActionListener listenForProbabilitiesBox) {
+		probabilities.addActionListener(listenForProbabilitiesBox);
+	}
+	
+	/**
+	 * Add ActionListener to no guess check box.
+	 * @param listenForNoGuessBox - ActionListener added to No guess check box.
+	 */
+	void addActionNoGuessListener(ActionListener listenForNoGuessBox) {
+		noGuess.addActionListener(listenForNoGuessBox);
+	}
+	
+	/**
+	 * Add ActionListener to reset button.
+	 * @param listenForResetButton - ActionListener added to Reset button.
+	 */
+	void addActionResetListener(ActionListener listenForResetButton) {
+		reset.addActionListener(listenForResetButton);
+	}
+	
+	/**
+	 * Add MouseAdapter to gameboard.
+	 * @param listenForGridButton - MouseAdapater wchich will be added to gameboard
+	 */
+	void addMouseGridListener(MouseAdapter listenForGridButton) {
+		this.boardPanel.addMouseListener(listenForGridButton);
+	}
+	
+	/**
+	 * This function adds ActionListener to drop-down menu.
+	 * @param listenForMenu - ActionListener which will be added to drop-down menu.
+	 */
+	void addActionMenuListener(ActionListener listenForMenu) {
+		menu.setSelectedIndex(0);
+		menu.addActionListener(listenForMenu);
+	}
+	
+	
+	/**
+	 * This function will remove all ActionListeners and MouseAdapters from all buttons and gameboard.
+	 */
+	void removeListeners() {
+		reset.removeMouseListener(reset.getMouseListeners()[0]);
+		this.boardPanel.removeMouseListener(this.boardPanel.getMouseListeners()[0]);
+		menu.removeActionListener(menu.getActionListeners()[0]);
+	}
+	
+	/**
+	 * @return queue which delivers model's events to this view, it holds counts of merged updates
+	 */
+	public UiUpdateQueue getUpdateQueue()
+	{
+		return this.updates;
+	}
+	
+	public BoardPanel getBoardPanel()
+	{
+		return this.boardPanel;
+	}
+}
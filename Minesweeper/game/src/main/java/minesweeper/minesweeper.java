@@ -0,0 +1,57 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Main class for minesweeper.
+ * @author Tomek
+ *
+ */
+public class minesweeper {
+
+	/**
+	 * Starts the game window, or headless {@link GameServer} when first argument is -server (remaining arguments are passed to it).
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length>0 && args[0].equals("-server")) {
+			GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		SwingUtilities.invokeLater(() -> {
+			Model model;
+			View view;
+			Controller controller;
+			model = new Model(8, 8, 10);
+			openJournal(model);
+			view = new View(model);
+			controller = new Controller(model, view);
+		});
+	}
+	
+	/**
+	 * Starts recording games to journal if path of it is given by minesweeper.journal property (see {@link MoveJournal}). Journal is closed when program exits.
+	 */
+	private static void openJournal(Model model) {
+		String path = System.getProperty("minesweeper.journal");
+		if(path==null)
+			return;
+		try {
+			MoveJournal journal = new MoveJournal(Paths.get(path));
+			model.setJournal(journal);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					journal.close();
+				}catch(IOException e) {
+					System.err.println("Can't close move journal: "+e);
+				}
+			}));
+		}catch(IOException e) {
+			System.err.println("Can't open move journal: "+e);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks list of bombs and neighbour counts of boards whose bombs were moved (see {@link Board#moveBomb(int, int)}): on reset boards which still hold fields of the previous game in blocks not cleared yet,
+ * on boards recycled by {@link BoardPregenerator} and after first click of {@link GameEngine} moved bombs away from clicked field.
+ * @author Tomek
+ *
+ */
+class BombRelocationTest {
+	private static final long TIMEOUT=10000;
+
+	@Test
+	void movedBombsAreListedOnResetBoard() {
+		Random random=new Random(3);
+		Board board=new Board(100, 100);
+		for(int game=0; game<50; ++game) {
+			board.placeBombs(3000, 0, random); //dense game leaves bombs in every block
+			board.calcNeighbours();
+			board.reset();
+			board.placeBombs(10+game, 0, random);
+			board.calcNeighbours();
+			for(int move=0; move<20; ++move) {
+				int from=board.getBombField(random.nextInt(board.getBombCount()));
+				int to=random.nextInt(board.size());
+				if(!board.getBomb(to%100, to/100))
+					board.moveBomb(from, to);
+				if(random.nextInt(4)==0)
+					assertBombs(board, 10+game); //list is read between moves too
+			}
+			assertBombs(board, 10+game);
+			board.reset();
+		}
+	}
+
+	@Test
+	void recycledBoardMatchesFreshBoard() throws InterruptedException {
+		BoardPregenerator pregenerator=new BoardPregenerator();
+		pregenerator.prepare(60, 40, 300);
+		Board dirty=new Board(60, 40);
+		dirty.placeBombs(2000, 0, new Random(1));
+		dirty.calcNeighbours();
+		dirty.reveal(0, 0);
+		pregenerator.recycle(dirty);
+		Board board=null;
+		for(long end=System.currentTimeMillis()+TIMEOUT; board!=dirty && System.currentTimeMillis()<end; ) {
+			board=take(pregenerator, 60, 40, 300);
+			assertBombs(board, 300);
+			assertSame(board, fresh(board), "board doesn't match fresh one");
+		}
+		assertSame(dirty, board, "recycled board was not prepared again");
+		for(int i=0; i<board.size(); ++i)
+			assertFalse(board.getRevealed(i%60, i/60));
+	}
+
+	@Test
+	void firstClickMovesBombsOfPregeneratedBoard() throws InterruptedException {
+		GameEngine engine=new GameEngine(50, 50, 600, new Random(4));
+		BoardPregenerator pregenerator=new BoardPregenerator();
+		engine.setPregenerator(pregenerator);
+		engine.setFirstClickPolicy(FirstClickPolicy.minOpening(30));
+		Random random=new Random(5);
+		for(int game=0; game<100; ++game) {
+			engine.reset();
+			for(long end=System.currentTimeMillis()+TIMEOUT; !pregenerator.isReady() && System.currentTimeMillis()<end; )
+				Thread.sleep(1);
+			engine.revealTile(random.nextInt(50), random.nextInt(50));
+			assertFalse(engine.hasSeededLayout());
+			assertBombs(engine.getBoard(), 600);
+			assertSame(engine.getBoard(), fresh(engine.getBoard()), "board doesn't match fresh one");
+		}
+	}
+
+	private static Board take(BoardPregenerator pregenerator, int width, int height, int bombs) throws InterruptedException {
+		for(long end=System.currentTimeMillis()+TIMEOUT; System.currentTimeMillis()<end; Thread.sleep(1)) {
+			Board board=pregenerator.take(width, height, bombs);
+			if(board!=null)
+				return board;
+		}
+		assertNotNull(null, "no board was prepared");
+		return null;
+	}
+
+	/**
+	 * Checks number of bombs and that list of bombs holds exactly fields with bomb.
+	 */
+	static void assertBombs(Board board, int bombs) {
+		assertEquals(bombs, board.getBombCount());
+		int[] listed=new int[bombs];
+		for(int k=0; k<bombs; ++k)
+			listed[k]=board.getBombField(k);
+		Arrays.sort(listed);
+		int[] fields=new int[board.size()];
+		int count=0;
+		for(int i=0; i<board.size(); ++i)
+			if(board.getBomb(i%board.getWidth(), i/board.getWidth()))
+				fields[count++]=i;
+		assertEquals(bombs, count);
+		assertEquals(Arrays.toString(Arrays.copyOf(fields, count)), Arrays.toString(listed));
+	}
+
+	/**
+	 * Builds new board with the same bombs and compares bombs and neighbour counts of every field with it.
+	 * @return given board if it matches
+	 */
+	private static Board fresh(Board board) {
+		Board fresh=new Board(board.getWidth(), board.getHeight());
+		for(int k=0; k<board.getBombCount(); ++k) {
+			int i=board.getBombField(k);
+			fresh.setBomb(i%board.getWidth(), i/board.getWidth());
+		}
+		fresh.calcNeighbours();
+		for(int y=0; y<board.getHeight(); ++y)
+			for(int x=0; x<board.getWidth(); ++x) {
+				assertEquals(fresh.getBomb(x, y), board.getBomb(x, y), "bomb at "+x+","+y);
+				assertEquals(fresh.getNeighbours(x, y), board.getNeighbours(x, y), "neighbours at "+x+","+y);
+			}
+		NeighbourCountTest.assertCounts(board);
+		return board;
+	}
+}
@@ -0,0 +1,79 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks scanline fill of {@link Board#revealArea(int, int)} against plain recursive fill, which reveals field and, if it has no neighbouring bombs, recurses into all eight neighbours.
+ * Both are run on the same seeded random boards of different sizes and densities, including boards which were reset and are only partly written again.
+ * @author Tomek
+ *
+ */
+class FloodFillTest {
+	private static final int[][] MODES={{1, 1, 0}, {9, 9, 10}, {16, 16, 40}, {30, 16, 99}, {64, 3, 10}, {3, 64, 10}, {50, 50, 50}, {70, 40, 0}, {97, 61, 300}};
+
+	@Test
+	void scanlineFillRevealsSameFieldsAsRecursiveFill() {
+		Random random=new Random(1);
+		for(int[] mode : MODES)
+			for(int game=0; game<50; ++game)
+				this.play(new Board(mode[0], mode[1]), mode[2], random);
+	}
+
+	@Test
+	void scanlineFillWorksOnResetBoard() {
+		Random random=new Random(2);
+		for(int[] mode : MODES) {
+			Board board=new Board(mode[0], mode[1]);
+			for(int game=0; game<50; ++game) {
+				board.reset();
+				this.play(board, mode[2], random);
+			}
+		}
+	}
+
+	/**
+	 * Places bombs and clicks random fields without bomb, comparing every click with recursive fill.
+	 */
+	private void play(Board board, int bombs, Random random) {
+		int width=board.getWidth(), height=board.getHeight();
+		board.placeBombs(Math.min(bombs, board.size()-1), random.nextInt(board.size()), random);
+		board.calcNeighbours();
+		for(int click=0; click<5; ++click) {
+			int x=random.nextInt(width), y=random.nextInt(height);
+			if(board.getBomb(x, y))
+				continue;
+			boolean[] expected=new boolean[board.size()];
+			for(int i=0; i<expected.length; ++i)
+				expected[i]=board.getRevealed(i%width, i/width);
+			int expectedCount=reveal(board, expected, x, y);
+			assertEquals(expectedCount, board.revealArea(x, y), "revealed count after click at "+x+","+y);
+			for(int i=0; i<expected.length; ++i)
+				assertEquals(expected[i], board.getRevealed(i%width, i/width), "field "+i+" after click at "+x+","+y);
+		}
+	}
+
+	/**
+	 * Recursive fill on copy of revealed flags.
+	 * @return number of newly revealed fields
+	 */
+	private static int reveal(Board board, boolean[] revealed, int x, int y) {
+		int i=board.index(x, y);
+		if(revealed[i] || board.getBomb(x, y))
+			return 0;
+		revealed[i]=true;
+		int count=1;
+		if(board.getNeighbours(x, y)!=0)
+			return count;
+		for(int dy=-1; dy<=1; ++dy)
+			for(int dx=-1; dx<=1; ++dx) {
+				int nx=x+dx, ny=y+dy;
+				if(nx>=0 && ny>=0 && nx<board.getWidth() && ny<board.getHeight())
+					count+=reveal(board, revealed, nx, ny);
+			}
+		return count;
+	}
+}
@@ -0,0 +1,101 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that {@link GameFile} loads saved games back and refuses files whose header doesn't agree with their fields, even when their checksum is right.
+ * Broken files are made by changing saved game and writing checksum again, like crafted file would have it.
+ * @author Tomek
+ *
+ */
+class GameFileTest {
+	private static final int CHECKSUM=48;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void savedGamesAreLoadedBack() throws IOException {
+		for(int state=GameEngine.RUNNING; state<=GameEngine.LOST; ++state) {
+			GameEngine engine=play(state);
+			Path file=this.directory.resolve("game"+state);
+			GameFile.save(file, engine, 1234);
+			GameEngine loaded=new GameEngine(2, 2, 1, new Random());
+			assertEquals(1234, GameFile.load(file, loaded));
+			assertEquals(engine.getState(), loaded.getState());
+			assertEquals(engine.getBombCounter(), loaded.getBombCounter());
+			assertEquals(engine.getRevealedCounter(), loaded.getRevealedCounter());
+			assertEquals(engine.isFirstClick(), loaded.isFirstClick());
+			assertEquals(engine.getBoard().getBombCount(), loaded.getBoard().getBombCount());
+		}
+	}
+
+	@Test
+	void filesNotMatchingTheirFieldsAreRefused() throws IOException {
+		Path file=this.directory.resolve("game");
+		GameFile.save(file, play(GameEngine.WON), 0);
+		byte[] won=Files.readAllBytes(file);
+		GameFile.save(file, play(GameEngine.RUNNING), 0);
+		byte[] running=Files.readAllBytes(file);
+		assertRefused(file, won, 28, GameEngine.RUNNING); //every field is revealed
+		assertRefused(file, won, 28, 3); //no such state
+		assertRefused(file, running, 28, GameEngine.LOST); //no bomb was revealed
+		assertRefused(file, running, 24, ByteBuffer.wrap(running).getInt(24)+1);
+		assertRefused(file, running, 20, ByteBuffer.wrap(running).getInt(20)-1);
+		assertRefused(file, running, 16, ByteBuffer.wrap(running).getInt(16)+1);
+		assertRefused(file, running, 32, 1); //first click with bombs placed
+		byte[] field=running.clone();
+		field[GameFile.HEADER_SIZE]|=Board.REVEALED|Board.FLAGGED;
+		assertRefused(file, field, 24, ByteBuffer.wrap(running).getInt(24)); //revealed field with flag
+	}
+
+	/**
+	 * Writes saved game with one int of header changed and right checksum, then checks that loading it throws and doesn't change engine.
+	 */
+	private static void assertRefused(Path file, byte[] saved, int position, int value) throws IOException {
+		ByteBuffer buffer=ByteBuffer.wrap(saved.clone());
+		buffer.putInt(position, value);
+		CRC32 crc=new CRC32();
+		crc.update(buffer.array(), 0, CHECKSUM);
+		crc.update(buffer.array(), GameFile.HEADER_SIZE, buffer.capacity()-GameFile.HEADER_SIZE);
+		buffer.putInt(CHECKSUM, (int)crc.getValue());
+		Files.write(file, buffer.array());
+		GameEngine engine=new GameEngine(2, 2, 1, new Random());
+		assertThrows(IOException.class, () -> GameFile.load(file, engine), "header int at "+position+" set to "+value);
+		assertEquals(2, engine.getWidth());
+		assertEquals(true, engine.isFirstClick());
+	}
+
+	/**
+	 * Plays seeded game on 9x9 board with 10 bombs until it has given state: running game has one field revealed, won game has every bomb flagged and lost game has bomb revealed.
+	 */
+	private static GameEngine play(int state) {
+		GameEngine engine=new GameEngine(9, 9, 10, new Random(state));
+		engine.revealTile(4, 4);
+		Board board=engine.getBoard();
+		for(int i=0; i<board.size() && engine.getState()!=state; ++i) {
+			int x=i%9, y=i/9;
+			if(state==GameEngine.LOST && board.getBomb(x, y))
+				engine.revealTile(x, y);
+			else if(state==GameEngine.WON) {
+				if(board.getBomb(x, y))
+					engine.changeState(x, y);
+				else
+					engine.revealTile(x, y);
+			}
+		}
+		assertEquals(state, engine.getState());
+		return engine;
+	}
+}
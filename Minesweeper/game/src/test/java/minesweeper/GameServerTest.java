@@ -0,0 +1,84 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link GameServer} keeps boards of all sessions within it's limit of fields: new game which doesn't fit is refused with {@link GameProtocol#BUSY} and fields of closed session can be used by others.
+ * Clients are plain blocking connections to server on loopback address.
+ * @author Tomek
+ *
+ */
+class GameServerTest {
+	private static final long TIMEOUT=10000;
+
+	private GameServer server;
+
+	@BeforeEach
+	void start() throws IOException {
+		this.server=new GameServer(new InetSocketAddress("127.0.0.1", 0), 1, 2000);
+		Thread thread=new Thread(this.server::run, "game-server-test");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		this.server.close();
+	}
+
+	@Test
+	void newGamesOverLimitAreRefused() throws IOException, InterruptedException {
+		try(SocketChannel first=this.connect(); SocketChannel second=this.connect()) {
+			assertEquals(GameProtocol.DELTA, newGame(first, 30, 30));
+			assertEquals(GameProtocol.DELTA, newGame(second, 30, 30));
+			assertEquals(GameProtocol.BUSY, newGame(second, 40, 40), "boards of both sessions don't fit in limit");
+			assertEquals(GameProtocol.DELTA, newGame(second, 10, 10), "session which was refused can still play");
+		}
+		for(long end=System.currentTimeMillis()+TIMEOUT; this.server.getFields()!=0 && System.currentTimeMillis()<end; )
+			Thread.sleep(1);
+		assertEquals(0, this.server.getFields(), "closed sessions didn't give their fields back");
+		try(SocketChannel third=this.connect()) {
+			assertEquals(GameProtocol.DELTA, newGame(third, 40, 40));
+		}
+	}
+
+	private SocketChannel connect() throws IOException {
+		return SocketChannel.open(new InetSocketAddress("127.0.0.1", this.server.getPort()));
+	}
+
+	/**
+	 * Sends new game request and reads whole response.
+	 * @return type of response, or error code if it's error
+	 */
+	private static byte newGame(SocketChannel channel, int width, int height) throws IOException {
+		ByteBuffer request=ByteBuffer.allocate(GameProtocol.NEW_GAME_SIZE);
+		request.put(GameProtocol.NEW_GAME).putInt(width).putInt(height).putInt(width*height/10).putLong(1);
+		request.flip();
+		while(request.hasRemaining())
+			channel.write(request);
+		ByteBuffer response=read(channel, 2);
+		if(response.get(0)==GameProtocol.ERROR)
+			return response.get(1);
+		response=read(channel, GameProtocol.DELTA_HEADER_SIZE-2);
+		int count=response.getInt(GameProtocol.DELTA_HEADER_SIZE-6);
+		read(channel, count<0 ? width*height : 5*count);
+		return GameProtocol.DELTA;
+	}
+
+	private static ByteBuffer read(SocketChannel channel, int bytes) throws IOException {
+		ByteBuffer buffer=ByteBuffer.allocate(bytes);
+		while(buffer.hasRemaining())
+			if(channel.read(buffer)<0)
+				throw new IOException("Server closed connection");
+		return buffer;
+	}
+}
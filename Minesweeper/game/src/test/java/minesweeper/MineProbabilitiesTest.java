@@ -0,0 +1,109 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks probabilities of {@link MineProbabilities} against brute force, which goes over every layout of all bombs on hidden fields and keeps layouts which agree with every revealed number.
+ * Games are played one after another with one calculator, so results of components cached in one game must not leak into the next one.
+ * @author Tomek
+ *
+ */
+class MineProbabilitiesTest {
+	private static final double PRECISION=1e-9;
+
+	@Test
+	void sameFrontierWithDifferentNumbersIsNotTakenFromCache() {
+		GameEngine engine=new GameEngine(2, 2, 1, new Random(1));
+		MineProbabilities probabilities=new MineProbabilities(engine);
+		engine.placeBombs(new int[] {3});
+		engine.revealZeros(0, 0);
+		assertEquals(1.0/3, probabilities.calculate()[3], PRECISION);
+		engine.changeMode(2, 2, 2);
+		engine.placeBombs(new int[] {2, 3});
+		engine.revealZeros(0, 0);
+		assertEquals(2.0/3, probabilities.calculate()[3], PRECISION);
+	}
+
+	@Test
+	void probabilitiesAgreeWithBruteForce() {
+		Random random=new Random(7);
+		int[][] modes={{4, 4, 3}, {5, 4, 4}, {6, 3, 5}, {5, 5, 6}, {7, 3, 3}};
+		GameEngine engine=new GameEngine(4, 4, 3, new Random(1));
+		MineProbabilities probabilities=new MineProbabilities(engine);
+		for(int game=0; game<300; ++game) {
+			int[] mode=modes[game%modes.length];
+			engine.changeMode(mode[0], mode[1], mode[2]);
+			Board board=engine.getBoard();
+			board.placeBombs(mode[2], new int[0], random);
+			engine.calcNeighbours();
+			for(int click=1+random.nextInt(3); click>0; --click) {
+				int x=random.nextInt(mode[0]), y=random.nextInt(mode[1]);
+				if(!board.getBomb(x, y))
+					engine.revealZeros(x, y);
+			}
+			double[] expected=bruteForce(board, mode[2]);
+			double[] calculated=probabilities.calculate();
+			for(int i=0; i<expected.length; ++i)
+				assertEquals(expected[i], calculated[i], PRECISION, "game "+game+" field "+i);
+		}
+	}
+
+	/**
+	 * @return share of layouts agreeing with revealed numbers which have bomb on every field, 0 for revealed fields
+	 */
+	private static double[] bruteForce(Board board, int bombs) {
+		List<Integer> hidden=new ArrayList<Integer>();
+		for(int i=0; i<board.size(); ++i)
+			if(!board.getRevealed(i%board.getWidth(), i/board.getWidth()))
+				hidden.add(i);
+		double[] counts=new double[board.size()];
+		long[] total={0};
+		choose(board, hidden, 0, bombs, new boolean[board.size()], counts, total);
+		for(int i=0; i<counts.length; ++i)
+			counts[i]/=total[0];
+		return counts;
+	}
+
+	private static void choose(Board board, List<Integer> hidden, int from, int bombs, boolean[] layout, double[] counts, long[] total) {
+		if(bombs==0) {
+			if(agrees(board, layout)) {
+				total[0]++;
+				for(int i=0; i<layout.length; ++i)
+					if(layout[i])
+						counts[i]++;
+			}
+			return;
+		}
+		for(int k=from; k<=hidden.size()-bombs; ++k) {
+			layout[hidden.get(k)]=true;
+			choose(board, hidden, k+1, bombs-1, layout, counts, total);
+			layout[hidden.get(k)]=false;
+		}
+	}
+
+	/**
+	 * @return true if every revealed field has as many bombs of layout around it as it's number
+	 */
+	private static boolean agrees(Board board, boolean[] layout) {
+		int width=board.getWidth(), height=board.getHeight();
+		for(int y=0; y<height; ++y)
+			for(int x=0; x<width; ++x) {
+				if(!board.getRevealed(x, y))
+					continue;
+				int around=0;
+				for(int j=Math.max(y-1, 0); j<=Math.min(y+1, height-1); ++j)
+					for(int i=Math.max(x-1, 0); i<=Math.min(x+1, width-1); ++i)
+						if(layout[board.index(i, j)])
+							around++;
+				if(around!=board.getNeighbours(x, y))
+					return false;
+			}
+		return true;
+	}
+}
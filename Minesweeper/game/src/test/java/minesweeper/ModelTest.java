@@ -0,0 +1,105 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how {@link Model} sets up it's engine for new games and game modes.
+ * Board taken from pregenerator is told apart from board placed on first click by {@link GameEngine#hasSeededLayout()}, which is true only for bombs placed on first click.
+ * @author Tomek
+ *
+ */
+class ModelTest {
+	private static final long TIMEOUT=10000;
+
+	@Test
+	void onlySmallBoardsArePregenerated() throws InterruptedException {
+		Model model=new Model(30, 16, 99);
+		assertTrue(pregenerated(model), "small board was not pregenerated");
+		model.changeMode(1100, 1000, 1000);
+		for(int game=0; game<3; ++game) {
+			model.reset();
+			Thread.sleep(50);
+			model.revealTile(0, 0);
+			assertTrue(model.getEngine().hasSeededLayout(), "board of "+BoardPool.MAX_FIELDS+"+ fields was pregenerated");
+		}
+		model.changeMode(30, 16, 99);
+		assertTrue(pregenerated(model), "pregenerator was not turned on again");
+	}
+
+	@Test
+	void eventsAreSentAfterMoveThrows() {
+		Model model=new Model(9, 9, 10);
+		int[] events={0};
+		model.addListener(sent -> events[0]|=sent);
+		assertThrows(RuntimeException.class, () -> model.changeMode(-1, 9, 10));
+		events[0]=0;
+		model.changeMode(9, 9, 10);
+		assertTrue(GameEvent.MODE_CHANGED.in(events[0]), "no event was sent after failed move");
+	}
+
+	@Test
+	void corruptReplayGivesSettingsBack() throws InterruptedException {
+		Model model=new Model(30, 16, 99);
+		model.setFirstClickPolicy(FirstClickPolicy.OPENING);
+		JournalReplay.Game game=new JournalReplay.Game(30, 16, 99, 1);
+		game.addMove(30*16, false, 0); //field outside the board
+		assertThrows(RuntimeException.class, () -> model.replay(game, 1));
+		assertSame(FirstClickPolicy.OPENING, model.getEngine().getFirstClickPolicy());
+		model.setFirstClickPolicy(FirstClickPolicy.SAFE_FIELD); //opening moves bombs, so layout wouldn't be seeded anyway
+		assertTrue(pregenerated(model), "pregenerator was not given back");
+	}
+
+	@Test
+	void infiniteGameIsPlayedOnInfiniteBoard() {
+		Model model=new Model(9, 9, 10);
+		int[] events={0};
+		model.addListener(sent -> events[0]|=sent);
+		model.startInfinite(0.2);
+		assertTrue(GameEvent.MODE_CHANGED.in(events[0]), "mode change was not sent");
+		InfiniteBoard board=model.getInfiniteBoard();
+		model.revealTile(0, 0);
+		assertTrue(board.getRevealed(0, 0), "move was not made on infinite board");
+		assertEquals(GameEngine.RUNNING, board.getState());
+		assertTrue(model.getEngine().isFirstClick(), "move was made on engine's board");
+		assertFalse(model.hint());
+		assertThrows(IOException.class, () -> model.save(Paths.get("infinite")));
+		int x=-1000000;
+		while(!board.isBomb(x, 5000000))
+			x--;
+		events[0]=0;
+		model.revealTile(x, 5000000);
+		assertTrue(GameEvent.LOST.in(events[0]), "revealed bomb didn't end the game");
+		model.reset();
+		assertNotSame(board, model.getInfiniteBoard(), "reset didn't start new infinite game");
+		model.changeMode(9, 9, 10);
+		assertNull(model.getInfiniteBoard());
+		model.revealTile(4, 4);
+		assertTrue(model.getBoard().getRevealed(4, 4), "bounded game was not played after infinite one");
+	}
+
+	/**
+	 * Starts new games until first click takes pregenerated board.
+	 * @return false if no board was taken before timeout
+	 */
+	private static boolean pregenerated(Model model) throws InterruptedException {
+		for(long end=System.currentTimeMillis()+TIMEOUT; System.currentTimeMillis()<end; Thread.sleep(10)) {
+			model.reset();
+			Thread.sleep(10);
+			model.revealTile(0, 0);
+			if(!model.getEngine().hasSeededLayout())
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,70 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that scatter counting of {@link Board#scatterNeighbours()} and padded grid counting of {@link Board#countNeighbours()} give the same neighbour counts as counting bombs around every field directly.
+ * Both are run on the same seeded random boards, sparse and dense, small and big enough to be counted in parallel.
+ * @author Tomek
+ *
+ */
+class NeighbourCountTest {
+	private static final int[][] MODES={{1, 1, 0}, {2, 1, 1}, {9, 9, 10}, {30, 16, 99}, {8, 8, 63}, {64, 3, 50}, {3, 64, 50}, {100, 100, 100}, {100, 100, 5000}, {400, 300, 6000}, {400, 300, 60000}};
+
+	@Test
+	void scatterAndDenseCountingGiveSameCounts() {
+		for(int[] mode : MODES)
+			for(long seed=0; seed<5; ++seed) {
+				Board scattered=board(mode, seed);
+				scattered.scatterNeighbours();
+				Board counted=board(mode, seed);
+				counted.countNeighbours();
+				assertCounts(scattered);
+				assertCounts(counted);
+			}
+	}
+
+	@Test
+	void countingWorksOnResetBoard() {
+		for(int[] mode : MODES) {
+			Board scattered=new Board(mode[0], mode[1]), counted=new Board(mode[0], mode[1]);
+			for(long seed=0; seed<5; ++seed) {
+				scattered.reset();
+				scattered.placeBombs(mode[2], 0, new Random(seed));
+				scattered.scatterNeighbours();
+				counted.reset();
+				counted.placeBombs(mode[2], 0, new Random(seed));
+				counted.countNeighbours();
+				assertCounts(scattered);
+				assertCounts(counted);
+			}
+		}
+	}
+
+	private static Board board(int[] mode, long seed) {
+		Board board=new Board(mode[0], mode[1]);
+		board.placeBombs(mode[2], 0, new Random(seed));
+		return board;
+	}
+
+	/**
+	 * Compares neighbour count of every field with bombs counted around it, fields with bomb must have zero.
+	 */
+	static void assertCounts(Board board) {
+		int width=board.getWidth(), height=board.getHeight();
+		for(int y=0; y<height; ++y)
+			for(int x=0; x<width; ++x) {
+				int expected=0;
+				if(!board.getBomb(x, y))
+					for(int j=Math.max(y-1, 0); j<=Math.min(y+1, height-1); ++j)
+						for(int i=Math.max(x-1, 0); i<=Math.min(x+1, width-1); ++i)
+							if(board.getBomb(i, j))
+								expected++;
+				assertEquals(expected, board.getNeighbours(x, y), "field "+x+","+y+" of "+width+"x"+height);
+			}
+	}
+}
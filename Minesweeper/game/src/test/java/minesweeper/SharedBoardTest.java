@@ -0,0 +1,116 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Stress test of {@link SharedBoard}. Many threads start at the same moment and reveal random fields of one board, while some fields with bombs are flagged and unflagged by them all the time.
+ * Afterwards the board is checked:
+ * <ul>
+ * <li>counters must be equal to numbers of revealed, exploded and flagged fields found on the board, so no field was revealed twice</li>
+ * <li>no field may be both revealed and flagged</li>
+ * <li>the same clicks made one after another on the original single-player {@link Board} must reveal exactly the same fields, so overlapping areas were revealed completely</li>
+ * </ul>
+ * Flags are put only on bombs which are never clicked, so they don't change which fields are revealed and the result doesn't depend on order of moves.
+ * Boards and moves come from fixed seed, only the way threads interleave changes from run to run.
+ * @author Tomek
+ *
+ */
+class SharedBoardTest {
+	/** Every this many moves of a thread is a flag change instead of click. */
+	private static final int FLAG_EVERY=5;
+	private static final int SIZE=300, THREADS=4, MOVES=20000, ROUNDS=5;
+	private static final double[] DENSITIES={0.05, 0.15, 0.25};
+
+	@Test
+	@Timeout(120)
+	void playersNeverRevealFieldTwice() throws Exception {
+		SplittableRandom random=new SplittableRandom(21);
+		ExecutorService players=Executors.newFixedThreadPool(THREADS);
+		try {
+			for(int round=0; round<ROUNDS; ++round)
+				this.round(DENSITIES[round%DENSITIES.length], players, random.split(), "round "+round);
+		}finally {
+			players.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays one round on new board and checks it.
+	 */
+	private void round(double density, ExecutorService players, SplittableRandom random, String round) throws Exception {
+		Board board=new Board(SIZE, SIZE);
+		board.placeBombs((int)(board.size()*density), new int[0], new Random(random.nextLong()));
+		board.calcNeighbours();
+		//every fourth bomb is only flagged, all other fields are only clicked
+		int[] flagged=new int[(board.getBombCount()+3)/4];
+		boolean[] flaggable=new boolean[board.size()];
+		for(int k=0; k<flagged.length; ++k) {
+			flagged[k]=board.getBombField(4*k);
+			flaggable[flagged[k]]=true;
+		}
+
+		SharedBoard shared=new SharedBoard(board);
+		int[][] clicks=new int[THREADS][MOVES];
+		int[] clickCounts=new int[THREADS];
+		CountDownLatch start=new CountDownLatch(THREADS);
+		List<Callable<Void>> moves=new ArrayList<Callable<Void>>();
+		for(int t=0; t<THREADS; ++t) {
+			int player=t;
+			SplittableRandom own=random.split();
+			moves.add(() -> {
+				start.countDown();
+				start.await();
+				for(int m=0; m<MOVES; ++m) {
+					if(m%FLAG_EVERY==0 && flagged.length>0) {
+						int i=flagged[own.nextInt(flagged.length)];
+						shared.changeState(i%SIZE, i/SIZE);
+						continue;
+					}
+					int i=own.nextInt(SIZE*SIZE);
+					if(flaggable[i])
+						continue;
+					clicks[player][clickCounts[player]++]=i;
+					shared.reveal(i%SIZE, i/SIZE);
+				}
+				return null;
+			});
+		}
+		for(Future<Void> future : players.invokeAll(moves))
+			future.get(); //rethrows failure of player
+
+		long revealed=0, exploded=0, flags=0;
+		for(int i=0; i<board.size(); ++i) {
+			int x=i%SIZE, y=i/SIZE;
+			assertFalse(shared.getRevealed(x, y) && shared.getFlag(x, y), round+": field "+i+" is revealed and flagged");
+			if(shared.getRevealed(x, y) && shared.getBomb(x, y))
+				exploded++;
+			else if(shared.getRevealed(x, y))
+				revealed++;
+			else if(shared.getFlag(x, y))
+				flags++;
+		}
+		assertEquals(revealed, shared.getRevealedCounter(), round+": revealed fields");
+		assertEquals(exploded, shared.getExplodedCounter(), round+": revealed bombs");
+		assertEquals(flags, shared.getFlagCounter(), round+": flags");
+
+		for(int t=0; t<THREADS; ++t)
+			for(int k=0; k<clickCounts[t]; ++k)
+				board.revealArea(clicks[t][k]%SIZE, clicks[t][k]/SIZE);
+		for(int i=0; i<board.size(); ++i)
+			assertEquals(board.getRevealed(i%SIZE, i/SIZE), shared.getRevealed(i%SIZE, i/SIZE), round+": field "+i+" compared with the same clicks on single-player board");
+	}
+}
@@ -0,0 +1,137 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that incremental {@link Solver}, updated after every move, knows the same safe fields and bombs as full solve of the board, which applies both rules of the solver to every pair of revealed numbers until nothing changes.
+ * Games are played on seeded random boards by clicking fields solver says are safe, or random fields without bomb when it knows none, and solver is compared with full solve whenever it knows no safe field.
+ * @author Tomek
+ *
+ */
+class SolverTest {
+	private static final int GAMES=40;
+	private static final int[][] MODES={{9, 9, 10}, {16, 16, 40}, {30, 16, 99}, {20, 20, 80}, {40, 10, 70}};
+
+	@Test
+	void incrementalSolverKnowsWhatFullSolveKnows() {
+		Random random=new Random(11);
+		for(int[] mode : MODES)
+			for(int game=0; game<GAMES; ++game) {
+				GameEngine engine=new GameEngine(mode[0], mode[1], mode[2], new Random(random.nextLong()));
+				Solver solver=new Solver(engine);
+				int x=random.nextInt(mode[0]), y=random.nextInt(mode[1]);
+				engine.revealTile(x, y);
+				solver.revealed(x, y);
+				Board board=engine.getBoard();
+				while(engine.getState()==GameEngine.RUNNING && engine.getRevealedCounter()<board.size()-mode[2]) {
+					int click=solver.nextSafe();
+					if(click<0) { //solver is stuck, so it must know everything full solve knows
+						assertSolved(board, solver, "game "+game+" of "+mode[0]+"x"+mode[1]);
+						do
+							click=random.nextInt(board.size());
+						while(board.getBomb(click%mode[0], click/mode[0]) || board.getRevealed(click%mode[0], click/mode[0]));
+					}
+					engine.revealTile(click%mode[0], click/mode[0]);
+					solver.revealed(click%mode[0], click/mode[0]);
+				}
+			}
+	}
+
+	/**
+	 * Compares what solver knows about every hidden field with full solve.
+	 */
+	private static void assertSolved(Board board, Solver solver, String game) {
+		int[] expected=solve(board);
+		for(int i=0; i<board.size(); ++i) {
+			if(board.getRevealed(i%board.getWidth(), i/board.getWidth()))
+				continue;
+			assertEquals(expected[i]==SAFE, solver.isSafe(i), game+" safe field "+i);
+			assertEquals(expected[i]==MINE, solver.isMine(i), game+" bomb "+i);
+		}
+	}
+
+	private static final int SAFE=1, MINE=2;
+
+	/**
+	 * Applies both rules to all revealed numbers from scratch: numbers with no bombs or only bombs left decide their fields and if undecided fields of one number are subset of another's, the difference holds difference of their bombs.
+	 * @return {@link #SAFE}, {@link #MINE} or 0 for every field
+	 */
+	private static int[] solve(Board board) {
+		int width=board.getWidth(), height=board.getHeight();
+		int[] known=new int[board.size()];
+		boolean changed=true;
+		while(changed) {
+			changed=false;
+			for(int i=0; i<board.size(); ++i) {
+				if(!number(board, i))
+					continue;
+				changed|=decide(known, undecided(board, known, i), bombsLeft(board, known, i));
+				int x=i%width, y=i/width;
+				for(int oy=Math.max(y-2, 0); oy<=Math.min(y+2, height-1); ++oy)
+					for(int ox=Math.max(x-2, 0); ox<=Math.min(x+2, width-1); ++ox) {
+						int j=ox+oy*width;
+						if(j==i || !number(board, j))
+							continue;
+						BitSet fields=undecided(board, known, i), other=undecided(board, known, j);
+						if(subset(fields, other))
+							changed|=decide(known, difference(other, fields), bombsLeft(board, known, j)-bombsLeft(board, known, i));
+					}
+			}
+		}
+		return known;
+	}
+
+	private static boolean number(Board board, int i) {
+		int x=i%board.getWidth(), y=i/board.getWidth();
+		return board.getRevealed(x, y) && !board.getBomb(x, y) && board.getNeighbours(x, y)>0;
+	}
+
+	private static BitSet undecided(Board board, int[] known, int i) {
+		BitSet fields=new BitSet();
+		int width=board.getWidth(), x=i%width, y=i/width;
+		for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, board.getHeight()-1); ++ny)
+			for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, width-1); ++nx)
+				if(!board.getRevealed(nx, ny) && known[nx+ny*width]==0)
+					fields.set(nx+ny*width);
+		return fields;
+	}
+
+	private static int bombsLeft(Board board, int[] known, int i) {
+		int width=board.getWidth(), x=i%width, y=i/width;
+		int bombs=board.getNeighbours(x, y);
+		for(int ny=Math.max(y-1, 0); ny<=Math.min(y+1, board.getHeight()-1); ++ny)
+			for(int nx=Math.max(x-1, 0); nx<=Math.min(x+1, width-1); ++nx)
+				if(known[nx+ny*width]==MINE)
+					bombs--;
+		return bombs;
+	}
+
+	private static boolean subset(BitSet fields, BitSet other) {
+		BitSet outside=(BitSet)fields.clone();
+		outside.andNot(other);
+		return outside.isEmpty();
+	}
+
+	private static BitSet difference(BitSet fields, BitSet other) {
+		BitSet difference=(BitSet)fields.clone();
+		difference.andNot(other);
+		return difference;
+	}
+
+	/**
+	 * @return true if fields of set were decided
+	 */
+	private static boolean decide(int[] known, BitSet fields, int bombs) {
+		int count=fields.cardinality();
+		if(count==0 || (bombs!=0 && bombs!=count))
+			return false;
+		for(int i=fields.nextSetBit(0); i>=0; i=fields.nextSetBit(i+1))
+			known[i]=bombs==0 ? SAFE : MINE;
+		return true;
+	}
+}